@@ -28,6 +28,14 @@ public abstract class AbstractMapBasedReferenceWriter implements ReferenceWriter
         refs.put(object, refs.size());
     }
 
+    /**
+     * Forget all registered objects, so that references start from zero again.
+     */
+    public final void clear() {
+        ensureIsOpen();
+        refs.clear();
+    }
+
     @Override
     public final void close() {
         ensureIsOpen();
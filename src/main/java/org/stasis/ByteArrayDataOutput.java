@@ -0,0 +1,208 @@
+package org.stasis;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+
+import org.stasis.pool.BufferPool;
+
+/**
+ * {@link DataOutput} which writes to a growable byte array. The array is exposed with {@link #array()} so that
+ * written bytes can be patched and passed on without copying.
+ * <p>
+ * An output created with a {@link BufferPool} borrows its array from the pool, returns outgrown arrays to it and
+ * returns its current array on {@link #release()}.
+ */
+public class ByteArrayDataOutput extends OutputStream implements DataOutput {
+
+    private static final byte[] EMPTY = new byte[0];
+    // Largest array size the VM reliably allocates.
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final BufferPool pool;
+    private byte[] array;
+    private int size;
+
+    public ByteArrayDataOutput() {
+        this(256);
+    }
+
+    public ByteArrayDataOutput(int initialCapacity) {
+        this.pool = null;
+        this.array = new byte[initialCapacity];
+    }
+
+    public ByteArrayDataOutput(BufferPool pool) {
+        this.pool = pool;
+        this.array = pool.borrowArray(256);
+    }
+
+    /**
+     * Return the backing array. Only the first {@link #size()} bytes are valid and the array is replaced when it
+     * grows.
+     */
+    public byte[] array() {
+        return array;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Reset this output and return its array to the pool it was created with. Arrays returned by {@link #array()}
+     * before must not be used afterwards. Writing to the output again borrows a new array.
+     */
+    public void release() {
+        if (pool != null) {
+            pool.releaseArray(array);
+            array = EMPTY;
+        }
+        size = 0;
+    }
+
+    /**
+     * Discard the bytes written after the given size, for example to roll back a partially written value.
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException("Size " + size + " is outside of 0.." + this.size + ".");
+        }
+        this.size = size;
+    }
+
+    /**
+     * Advance the size by the given number of bytes without writing them, to reserve room for a prefix that is
+     * written into {@link #array()} afterwards.
+     */
+    public void skip(int length) {
+        ensureCapacity(size + length);
+        size += length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(array, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(array, 0, size);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new OutOfMemoryError("Output of more than " + Integer.MAX_VALUE + " bytes.");
+        }
+        if (capacity > array.length) {
+            int newCapacity = (int) Math.max(capacity, Math.min(2L * array.length, MAX_CAPACITY));
+            if (pool == null) {
+                array = Arrays.copyOf(array, newCapacity);
+            } else {
+                byte[] grown = pool.borrowArray(newCapacity);
+                System.arraycopy(array, 0, grown, 0, size);
+                pool.releaseArray(array);
+                array = grown;
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(size + 1);
+        array[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(size + len);
+        System.arraycopy(b, off, array, size, len);
+        size += len;
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int v) {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        ensureCapacity(size + 2);
+        array[size++] = (byte) (v >>> 8);
+        array[size++] = (byte) v;
+    }
+
+    @Override
+    public void writeChar(int v) {
+        writeShort(v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        ensureCapacity(size + 4);
+        array[size++] = (byte) (v >>> 24);
+        array[size++] = (byte) (v >>> 16);
+        array[size++] = (byte) (v >>> 8);
+        array[size++] = (byte) v;
+    }
+
+    @Override
+    public void writeLong(long v) {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        int length = s.length();
+        ensureCapacity(size + length);
+        for (int i = 0; i < length; i++) {
+            array[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    @Override
+    public void writeChars(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        int start = size;
+        try {
+            new DataOutputStream(this).writeUTF(s);
+        } catch (UTFDataFormatException e) {
+            size = start;
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package org.stasis;
+
+import java.io.DataOutput;
+import java.io.UTFDataFormatException;
+
+/**
+ * {@link DataOutput} which discards written bytes and only counts them.
+ */
+public class CountingDataOutput implements DataOutput {
+
+    private long count;
+
+    public long count() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        count += b.length;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        count++;
+    }
+
+    @Override
+    public void writeByte(int v) {
+        count++;
+    }
+
+    @Override
+    public void writeShort(int v) {
+        count += 2;
+    }
+
+    @Override
+    public void writeChar(int v) {
+        count += 2;
+    }
+
+    @Override
+    public void writeInt(int v) {
+        count += 4;
+    }
+
+    @Override
+    public void writeLong(long v) {
+        count += 8;
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        count += 4;
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        count += 8;
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        count += s.length();
+    }
+
+    @Override
+    public void writeChars(String s) {
+        count += 2L * s.length();
+    }
+
+    @Override
+    public void writeUTF(String s) throws UTFDataFormatException {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        if (length > 65535) {
+            throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+        }
+        count += 2 + length;
+    }
+
+}
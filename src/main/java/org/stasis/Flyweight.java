@@ -0,0 +1,156 @@
+package org.stasis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * Base class for views which read the fields of fixed-layout records straight from their encoded bytes. A record is
+ * fixed-layout when its serializer writes every field with a fixed-width serializer such as
+ * {@link Serializers#forInt()}, {@link Serializers#forLong()} or {@link Serializers#forDouble()}, in which case each
+ * field has a constant offset.
+ * </p>
+ * 
+ * <p>
+ * Subclasses declare the record length and typed accessors which call the getters of this class with the field
+ * offset. A view is bound to a byte array or a {@link ByteBuffer} and can be moved to the following records with
+ * {@link #next()} without allocating.
+ * </p>
+ * 
+ * <p>
+ * {@code wrapObjects} binds to records written with
+ * {@link Stasis.Writer#writeObject(Object, java.io.DataOutput, Serializer)}, where each record follows its one-byte
+ * object header. The header is checked on every record, so a record written as a reference to an earlier equal
+ * object fails the view. {@code wrap} binds to raw records written by calling the serializer directly.
+ * </p>
+ */
+public abstract class Flyweight {
+
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int offset;
+    private int limit;
+    private int headerLength;
+    private int header;
+
+    /**
+     * Encoded length of one record in bytes.
+     */
+    public abstract int encodedLength();
+
+    public void wrap(byte[] array, int offset) {
+        bind(array, null, array.length, -1);
+        moveTo(offset);
+    }
+
+    /**
+     * Bind to raw records. The buffer is read in big-endian order regardless of its own byte order.
+     */
+    public void wrap(ByteBuffer buffer, int offset) {
+        bind(null, buffer.duplicate().order(ByteOrder.BIG_ENDIAN), buffer.limit(), -1);
+        moveTo(offset);
+    }
+
+    /**
+     * Bind to records written with a {@link Stasis.Writer}, starting from the header of the record at the offset.
+     */
+    public void wrapObjects(byte[] array, int offset, boolean compactHeaders) {
+        bind(array, null, array.length, Stasis.typedObjectHeader(compactHeaders));
+        moveTo(offset);
+    }
+
+    public void wrapObjects(ByteBuffer buffer, int offset, boolean compactHeaders) {
+        ByteBuffer bigEndian = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        bind(null, bigEndian, buffer.limit(), Stasis.typedObjectHeader(compactHeaders));
+        moveTo(offset);
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Move to the next record. Return true if the whole record fits in the wrapped bytes.
+     */
+    public boolean next() {
+        offset += headerLength + encodedLength();
+        checkHeader();
+        return offset + headerLength + encodedLength() <= limit;
+    }
+
+    private void bind(byte[] array, ByteBuffer buffer, int limit, int header) {
+        this.array = array;
+        this.buffer = buffer;
+        this.limit = limit;
+        this.header = header;
+        this.headerLength = header < 0 ? 0 : 1;
+    }
+
+    private void moveTo(int offset) {
+        if (offset < 0 || offset > limit) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is outside of 0.." + limit + ".");
+        }
+        this.offset = offset;
+        checkHeader();
+    }
+
+    private void checkHeader() {
+        if (headerLength > 0 && offset < limit) {
+            int actual = array != null ? array[offset] : buffer.get(offset);
+            if (actual != header) {
+                throw new IllegalStateException("Record at offset " + offset + " has header " + actual + " instead of "
+                                                + header + ", it is not an object written with its serializer.");
+            }
+        }
+    }
+
+    protected final boolean getBoolean(int fieldOffset) {
+        return getByte(fieldOffset) == 1;
+    }
+
+    protected final byte getByte(int fieldOffset) {
+        int index = offset + headerLength + fieldOffset;
+        return array != null ? array[index] : buffer.get(index);
+    }
+
+    protected final short getShort(int fieldOffset) {
+        int index = offset + headerLength + fieldOffset;
+        if (array != null) {
+            return (short) ((array[index] << 8) | (array[index + 1] & 0xFF));
+        } else {
+            return buffer.getShort(index);
+        }
+    }
+
+    protected final char getChar(int fieldOffset) {
+        return (char) getShort(fieldOffset);
+    }
+
+    protected final int getInt(int fieldOffset) {
+        int index = offset + headerLength + fieldOffset;
+        if (array != null) {
+            return (array[index] << 24) | ((array[index + 1] & 0xFF) << 16) | ((array[index + 2] & 0xFF) << 8)
+                   | (array[index + 3] & 0xFF);
+        } else {
+            return buffer.getInt(index);
+        }
+    }
+
+    protected final long getLong(int fieldOffset) {
+        int index = offset + headerLength + fieldOffset;
+        if (array != null) {
+            return ((long) getInt(fieldOffset) << 32) | (getInt(fieldOffset + 4) & 0xFFFFFFFFL);
+        } else {
+            return buffer.getLong(index);
+        }
+    }
+
+    protected final float getFloat(int fieldOffset) {
+        return Float.intBitsToFloat(getInt(fieldOffset));
+    }
+
+    protected final double getDouble(int fieldOffset) {
+        return Double.longBitsToDouble(getLong(fieldOffset));
+    }
+
+}
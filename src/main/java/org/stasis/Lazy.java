@@ -0,0 +1,76 @@
+package org.stasis;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Value which is decoded from its bytes on the first call to {@link #get()}. Lazy values are written and read with
+ * {@link Serializers#forLazy(Class)}. A lazy value that has not been decoded is written again as its original bytes.
+ */
+public final class Lazy<A> {
+
+    private final Stasis stasis;
+    private final Class<A> type;
+    private byte[] bytes;
+    private A value;
+
+    private Lazy(A value) {
+        this.stasis = null;
+        this.type = null;
+        this.value = value;
+    }
+
+    Lazy(Stasis stasis, Class<A> type, byte[] bytes) {
+        this.stasis = stasis;
+        this.type = type;
+        this.bytes = bytes;
+    }
+
+    public static <A> Lazy<A> of(A value) {
+        return new Lazy<>(value);
+    }
+
+    /**
+     * Return the value, decoding it if this is the first call.
+     * 
+     * @throws IllegalStateException
+     *             if decoding fails.
+     */
+    public synchronized A get() {
+        if (bytes != null) {
+            Stasis.Reader reader = stasis.newReader();
+            try {
+                value = reader.readObject(new DataInputStream(new ByteArrayInputStream(bytes)), type);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                reader.close();
+            }
+            bytes = null;
+        }
+        return value;
+    }
+
+    public synchronized boolean isDecoded() {
+        return bytes == null;
+    }
+
+    /**
+     * Return a copy that shares the encoded bytes, which are never modified, or holds a copy of the decoded value.
+     */
+    synchronized Lazy<A> copy(Stasis.Copier copier) throws IOException {
+        if (bytes != null) {
+            return new Lazy<>(stasis, type, bytes);
+        }
+        return new Lazy<>(copier.copy(value));
+    }
+
+    /**
+     * Return the encoded bytes or null if the value has been decoded.
+     */
+    synchronized byte[] bytes() {
+        return bytes;
+    }
+
+}
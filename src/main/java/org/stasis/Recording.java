@@ -0,0 +1,33 @@
+package org.stasis;
+
+/**
+ * Hooks for JDK Flight Recorder events of writer and reader sessions. This version records nothing, the Java 11 layer of
+ * the multi-release jar replaces it with one that commits events when they are enabled in a recording.
+ */
+class Recording {
+
+    /**
+     * Return the recording of a new writer session, or null when no events are recorded.
+     */
+    static Recording writerSession() {
+        return null;
+    }
+
+    /**
+     * Return the recording of a new reader session, or null when no events are recorded.
+     */
+    static Recording readerSession() {
+        return null;
+    }
+
+    Object beginObject() {
+        return null;
+    }
+
+    void endObject(Object event, boolean write, Class<?> type, long bytes) {
+    }
+
+    void close(int objects, int references, long bytes, int referenceTableSize) {
+    }
+
+}
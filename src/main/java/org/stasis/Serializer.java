@@ -9,4 +9,31 @@ public interface Serializer<A> {
     void write(Stasis.Writer writer, DataOutput out, A value) throws IOException;
 
     A read(Stasis.Reader reader, DataInput in) throws IOException;
+
+    /**
+     * Read a value reusing the given target object where possible and return the value read, which is either the
+     * target or a new object. The default implementation ignores the target.
+     */
+    default A readInto(Stasis.Reader reader, DataInput in, A target) throws IOException {
+        return read(reader, in);
+    }
+
+    /**
+     * Return a deep copy of the value, copying nested objects with {@link Stasis.Copier#copy(Object)}. Copies that can
+     * contain themselves must be registered with {@link Stasis.Copier#register(Object, Object)} before their nested
+     * objects are copied. The default implementation writes and reads the value, so its nested objects are shared with
+     * the objects nested in other values copied this way, but not with the objects copied by serializers.
+     */
+    default A copy(Stasis.Copier copier, A value) throws IOException {
+        return copier.copyThroughBytes(this, value);
+    }
+
+    /**
+     * Return the number of bytes {@link #write(Stasis.Writer, DataOutput, Object)} writes for the value. Nested objects
+     * must be sized with {@link Stasis.Writer#sizeOf(Object)} in the order they are written. The default
+     * implementation writes the value to an output that only counts bytes.
+     */
+    default long size(Stasis.Writer writer, A value) throws IOException {
+        return writer.countWrittenBytes(this, value);
+    }
 }
@@ -3,14 +3,31 @@ package org.stasis;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.StreamCorruptedException;
 import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.stasis.Stasis.Copier;
 import org.stasis.Stasis.Reader;
 import org.stasis.Stasis.Writer;
+import org.stasis.pool.BufferPool;
 
 public class Serializers {
 
+    static final int READ_CHUNK = 8192;
+    // Approximate size of an array element holding a reference.
+    private static final int REFERENCE_SIZE = 4;
+
     private static final Serializer<Void> NULL = new Serializer<Void>() {
 
         @Override
@@ -22,6 +39,11 @@ public class Serializers {
             return null;
         }
 
+        @Override
+        public long size(Writer writer, Void value) throws IOException {
+            return 0;
+        }
+
     };
 
     private static final Serializer<Boolean> BOOLEAN = new Serializer<Boolean>() {
@@ -36,6 +58,11 @@ public class Serializers {
             return in.readByte() == 1;
         }
 
+        @Override
+        public long size(Writer writer, Boolean value) throws IOException {
+            return 1;
+        }
+
     };
 
     private static final Serializer<Character> CHAR = new Serializer<Character>() {
@@ -50,6 +77,11 @@ public class Serializers {
             return in.readChar();
         }
 
+        @Override
+        public long size(Writer writer, Character value) throws IOException {
+            return 2;
+        }
+
     };
 
     private static final Serializer<Byte> BYTE = new Serializer<Byte>() {
@@ -64,6 +96,11 @@ public class Serializers {
             return in.readByte();
         }
 
+        @Override
+        public long size(Writer writer, Byte value) throws IOException {
+            return 1;
+        }
+
     };
 
     private static final Serializer<Short> SHORT = new Serializer<Short>() {
@@ -78,6 +115,11 @@ public class Serializers {
             return in.readShort();
         }
 
+        @Override
+        public long size(Writer writer, Short value) throws IOException {
+            return 2;
+        }
+
     };
 
     private static final Serializer<Integer> INT = new Serializer<Integer>() {
@@ -92,6 +134,11 @@ public class Serializers {
             return in.readInt();
         }
 
+        @Override
+        public long size(Writer writer, Integer value) throws IOException {
+            return 4;
+        }
+
     };
 
     private static final Serializer<Integer> VARINT = new Serializer<Integer>() {
@@ -106,6 +153,11 @@ public class Serializers {
             return Varint.readSignedVarInt(in);
         }
 
+        @Override
+        public long size(Writer writer, Integer value) throws IOException {
+            return Varint.signedVarIntSize(value);
+        }
+
     };
 
     private static final Serializer<Integer> VARUINT = new Serializer<Integer>() {
@@ -120,6 +172,11 @@ public class Serializers {
             return Varint.readUnsignedVarInt(in);
         }
 
+        @Override
+        public long size(Writer writer, Integer value) throws IOException {
+            return Varint.unsignedVarIntSize(value);
+        }
+
     };
 
     private static final Serializer<Long> LONG = new Serializer<Long>() {
@@ -134,6 +191,11 @@ public class Serializers {
             return in.readLong();
         }
 
+        @Override
+        public long size(Writer writer, Long value) throws IOException {
+            return 8;
+        }
+
     };
 
     private static final Serializer<Long> VARLONG = new Serializer<Long>() {
@@ -148,6 +210,11 @@ public class Serializers {
             return Varint.readSignedVarLong(in);
         }
 
+        @Override
+        public long size(Writer writer, Long value) throws IOException {
+            return Varint.signedVarLongSize(value);
+        }
+
     };
 
     private static final Serializer<Long> VARULONG = new Serializer<Long>() {
@@ -162,6 +229,11 @@ public class Serializers {
             return Varint.readUnsignedVarLong(in);
         }
 
+        @Override
+        public long size(Writer writer, Long value) throws IOException {
+            return Varint.unsignedVarLongSize(value);
+        }
+
     };
 
     private static final Serializer<Float> FLOAT = new Serializer<Float>() {
@@ -176,6 +248,11 @@ public class Serializers {
             return Float.intBitsToFloat(in.readInt());
         }
 
+        @Override
+        public long size(Writer writer, Float value) throws IOException {
+            return 4;
+        }
+
     };
 
     private static final Serializer<Double> DOUBLE = new Serializer<Double>() {
@@ -190,6 +267,11 @@ public class Serializers {
             return Double.longBitsToDouble(in.readLong());
         }
 
+        @Override
+        public long size(Writer writer, Double value) throws IOException {
+            return 8;
+        }
+
     };
 
     private static final Serializer<String> STRING = new Serializer<String>() {
@@ -211,12 +293,21 @@ public class Serializers {
                 return "";
             } else {
                 int byteLength = Varint.readUnsignedVarInt(in); // byte length
-                byte[] bytes = new byte[byteLength];
-                in.readFully(bytes); // content
+                reader.checkStringBytes(byteLength);
+                byte[] bytes = readBytes(in, byteLength); // content
                 return new String(bytes, StandardCharsets.UTF_8);
             }
         }
 
+        @Override
+        public long size(Writer writer, String value) throws IOException {
+            if (value.isEmpty()) {
+                return 1;
+            }
+            int byteLength = utf8Length(value);
+            return Varint.unsignedVarIntSize(value.length()) + Varint.unsignedVarIntSize(byteLength) + byteLength;
+        }
+
     };
 
     private static final Serializer<byte[]> BYTE_ARRAY = new Serializer<byte[]>() {
@@ -230,96 +321,539 @@ public class Serializers {
         @Override
         public byte[] read(Reader reader, DataInput in) throws IOException {
             int size = forVarUInt().read(reader, in);
-            byte[] value = new byte[size];
-            in.readFully(value);
-            return value;
+            reader.checkLength(size, 1);
+            return readBytes(in, size);
+        }
+
+        @Override
+        public byte[] readInto(Reader reader, DataInput in, byte[] target) throws IOException {
+            int size = forVarUInt().read(reader, in);
+            reader.checkLength(size, 1);
+            if (target != null && target.length == size) {
+                in.readFully(target);
+                return target;
+            }
+            return readBytes(in, size);
+        }
+
+        @Override
+        public byte[] copy(Copier copier, byte[] value) {
+            return value.clone();
+        }
+
+        @Override
+        public long size(Writer writer, byte[] value) throws IOException {
+            return Varint.unsignedVarIntSize(value.length) + value.length;
+        }
+
+    };
+
+    /**
+     * Same encoding as {@link #BYTE_ARRAY}. Reads a read-only slice of the input when it is a
+     * {@link ByteBufferDataInput} and a copy otherwise.
+     */
+    private static final Serializer<ByteBuffer> BYTE_BUFFER = new Serializer<ByteBuffer>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, ByteBuffer value) throws IOException {
+            forVarUInt().write(writer, out, value.remaining());
+            writeBuffer(out, value);
+        }
+
+        @Override
+        public ByteBuffer read(Reader reader, DataInput in) throws IOException {
+            int size = forVarUInt().read(reader, in);
+            reader.checkLength(size, 1);
+            return readBuffer(in, size);
+        }
+
+        @Override
+        public ByteBuffer copy(Copier copier, ByteBuffer value) {
+            ByteBuffer copy = ByteBuffer.allocate(value.remaining());
+            copy.put(value.duplicate());
+            copy.flip();
+            return copy;
+        }
+
+        @Override
+        public long size(Writer writer, ByteBuffer value) throws IOException {
+            return Varint.unsignedVarIntSize(value.remaining()) + value.remaining();
+        }
+
+    };
+
+    /**
+     * Same encoding as {@link #STRING}. Reads the content as a {@link Utf8View} over a slice of the input when it is a
+     * {@link ByteBufferDataInput} and over a copy otherwise.
+     */
+    private static final Serializer<Utf8View> UTF8_VIEW = new Serializer<Utf8View>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, Utf8View value) throws IOException {
+            Varint.writeUnsignedVarInt(value.length(), out); // char length
+            if (value.length() > 0) {
+                ByteBuffer bytes = value.bytes();
+                Varint.writeUnsignedVarInt(bytes.remaining(), out); // byte length
+                writeBuffer(out, bytes); // content
+            }
+        }
+
+        @Override
+        public Utf8View read(Reader reader, DataInput in) throws IOException {
+            int length = Varint.readUnsignedVarInt(in); // char length
+            if (length == 0) {
+                return Utf8View.of("");
+            } else {
+                int byteLength = Varint.readUnsignedVarInt(in); // byte length
+                reader.checkStringBytes(byteLength);
+                return new Utf8View(readBuffer(in, byteLength), length); // content
+            }
+        }
+
+        @Override
+        public Utf8View copy(Copier copier, Utf8View value) {
+            // The view can share memory with an input buffer that is reused after the copy.
+            ByteBuffer bytes = value.bytes();
+            ByteBuffer copy = ByteBuffer.allocate(bytes.remaining());
+            copy.put(bytes);
+            copy.flip();
+            return new Utf8View(copy.asReadOnlyBuffer(), value.length());
+        }
+
+        @Override
+        public long size(Writer writer, Utf8View value) throws IOException {
+            if (value.length() == 0) {
+                return 1;
+            }
+            int byteLength = value.bytes().remaining();
+            return Varint.unsignedVarIntSize(value.length()) + Varint.unsignedVarIntSize(byteLength) + byteLength;
+        }
+
+    };
+
+    /**
+     * Seconds from the epoch as a signed varint and the nanosecond adjustment as an unsigned varint.
+     */
+    private static final Serializer<Instant> INSTANT = new Serializer<Instant>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, Instant value) throws IOException {
+            Varint.writeSignedVarLong(value.getEpochSecond(), out);
+            Varint.writeUnsignedVarInt(value.getNano(), out);
+        }
+
+        @Override
+        public Instant read(Reader reader, DataInput in) throws IOException {
+            long seconds = Varint.readSignedVarLong(in);
+            return Instant.ofEpochSecond(seconds, Varint.readUnsignedVarInt(in));
+        }
+
+        @Override
+        public long size(Writer writer, Instant value) throws IOException {
+            return Varint.signedVarLongSize(value.getEpochSecond()) + Varint.unsignedVarIntSize(value.getNano());
+        }
+
+    };
+
+    private static final Serializer<Duration> DURATION = new Serializer<Duration>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, Duration value) throws IOException {
+            Varint.writeSignedVarLong(value.getSeconds(), out);
+            Varint.writeUnsignedVarInt(value.getNano(), out);
+        }
+
+        @Override
+        public Duration read(Reader reader, DataInput in) throws IOException {
+            long seconds = Varint.readSignedVarLong(in);
+            return Duration.ofSeconds(seconds, Varint.readUnsignedVarInt(in));
+        }
+
+        @Override
+        public long size(Writer writer, Duration value) throws IOException {
+            return Varint.signedVarLongSize(value.getSeconds()) + Varint.unsignedVarIntSize(value.getNano());
+        }
+
+    };
+
+    /**
+     * Days from the epoch as a signed varint.
+     */
+    private static final Serializer<LocalDate> LOCAL_DATE = new Serializer<LocalDate>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, LocalDate value) throws IOException {
+            Varint.writeSignedVarLong(value.toEpochDay(), out);
+        }
+
+        @Override
+        public LocalDate read(Reader reader, DataInput in) throws IOException {
+            return LocalDate.ofEpochDay(Varint.readSignedVarLong(in));
+        }
+
+        @Override
+        public long size(Writer writer, LocalDate value) throws IOException {
+            return Varint.signedVarLongSize(value.toEpochDay());
+        }
+
+    };
+
+    /**
+     * Nanoseconds of the day as an unsigned varint.
+     */
+    private static final Serializer<LocalTime> LOCAL_TIME = new Serializer<LocalTime>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, LocalTime value) throws IOException {
+            Varint.writeUnsignedVarLong(value.toNanoOfDay(), out);
+        }
+
+        @Override
+        public LocalTime read(Reader reader, DataInput in) throws IOException {
+            return LocalTime.ofNanoOfDay(Varint.readUnsignedVarLong(in));
+        }
+
+        @Override
+        public long size(Writer writer, LocalTime value) throws IOException {
+            return Varint.unsignedVarLongSize(value.toNanoOfDay());
+        }
+
+    };
+
+    private static final Serializer<LocalDateTime> LOCAL_DATE_TIME = new Serializer<LocalDateTime>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, LocalDateTime value) throws IOException {
+            LOCAL_DATE.write(writer, out, value.toLocalDate());
+            LOCAL_TIME.write(writer, out, value.toLocalTime());
+        }
+
+        @Override
+        public LocalDateTime read(Reader reader, DataInput in) throws IOException {
+            LocalDate date = LOCAL_DATE.read(reader, in);
+            return LocalDateTime.of(date, LOCAL_TIME.read(reader, in));
+        }
+
+        @Override
+        public long size(Writer writer, LocalDateTime value) throws IOException {
+            return LOCAL_DATE.size(writer, value.toLocalDate()) + LOCAL_TIME.size(writer, value.toLocalTime());
+        }
+
+    };
+
+    private static final Serializer<UUID> UUID_SERIALIZER = new Serializer<UUID>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, UUID value) throws IOException {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+
+        @Override
+        public UUID read(Reader reader, DataInput in) throws IOException {
+            long mostSignificantBits = in.readLong();
+            return new UUID(mostSignificantBits, in.readLong());
+        }
+
+        @Override
+        public long size(Writer writer, UUID value) throws IOException {
+            return 16;
+        }
+
+    };
+
+    /**
+     * Values that fit a long are written as 0 and a signed varint, other values as the length and the bytes of their
+     * two's complement representation.
+     */
+    private static final Serializer<BigInteger> BIG_INTEGER = new Serializer<BigInteger>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, BigInteger value) throws IOException {
+            if (value.bitLength() < Long.SIZE) {
+                Varint.writeUnsignedVarInt(0, out);
+                Varint.writeSignedVarLong(value.longValue(), out);
+            } else {
+                byte[] bytes = value.toByteArray();
+                Varint.writeUnsignedVarInt(bytes.length, out); // byte length
+                out.write(bytes); // content
+            }
+        }
+
+        @Override
+        public BigInteger read(Reader reader, DataInput in) throws IOException {
+            int length = Varint.readUnsignedVarInt(in);
+            if (length == 0) {
+                return BigInteger.valueOf(Varint.readSignedVarLong(in));
+            }
+            reader.checkLength(length, 1);
+            return new BigInteger(readBytes(in, length));
+        }
+
+        @Override
+        public long size(Writer writer, BigInteger value) throws IOException {
+            if (value.bitLength() < Long.SIZE) {
+                return 1 + Varint.signedVarLongSize(value.longValue());
+            }
+            int byteLength = value.bitLength() / 8 + 1;
+            return Varint.unsignedVarIntSize(byteLength) + byteLength;
+        }
+
+    };
+
+    /**
+     * The scale as a signed varint followed by the unscaled value as a {@link #BIG_INTEGER}.
+     */
+    private static final Serializer<BigDecimal> BIG_DECIMAL = new Serializer<BigDecimal>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, BigDecimal value) throws IOException {
+            Varint.writeSignedVarInt(value.scale(), out);
+            BIG_INTEGER.write(writer, out, value.unscaledValue());
+        }
+
+        @Override
+        public BigDecimal read(Reader reader, DataInput in) throws IOException {
+            int scale = Varint.readSignedVarInt(in);
+            int length = Varint.readUnsignedVarInt(in);
+            if (length == 0) {
+                return BigDecimal.valueOf(Varint.readSignedVarLong(in), scale);
+            }
+            reader.checkLength(length, 1);
+            return new BigDecimal(new BigInteger(readBytes(in, length)), scale);
+        }
+
+        @Override
+        public long size(Writer writer, BigDecimal value) throws IOException {
+            return Varint.signedVarIntSize(value.scale()) + BIG_INTEGER.size(writer, value.unscaledValue());
         }
 
     };
 
     private static abstract class PrimitiveArraySerializer<A> implements Serializer<A> {
 
-        private final Serializer<Object> serializer;
+        private final int elementSize;
 
-        @SuppressWarnings("unchecked")
-        public PrimitiveArraySerializer(Serializer<?> serializer) {
-            this.serializer = (Serializer<Object>) serializer;
+        public PrimitiveArraySerializer(int elementSize) {
+            this.elementSize = elementSize;
         }
 
         @Override
         public final void write(Writer writer, DataOutput out, A array) throws IOException {
             int size = Array.getLength(array);
             Serializers.forVarUInt().write(writer, out, size);
-            for (int i = 0; i < size; i++) {
-                serializer.write(writer, out, Array.get(array, i));
-            }
+            writeElements(out, array, size);
         }
 
         @Override
         public final A read(Reader reader, DataInput in) throws IOException {
+            return readInto(reader, in, null);
+        }
+
+        @Override
+        public final A readInto(Reader reader, DataInput in, A target) throws IOException {
             int size = Serializers.forVarUInt().read(reader, in);
-            A array = newArray(size);
-            for (int i = 0; i < size; i++) {
-                Array.set(array, i, serializer.read(reader, in));
+            reader.checkLength(size, elementSize);
+            A array = target != null && Array.getLength(target) == size ? target : newArray(initialCapacity(in, size));
+            int capacity = Array.getLength(array);
+            int i = 0;
+            while (i < size) {
+                if (i == capacity) {
+                    capacity = (int) Math.min(size, 2L * capacity);
+                    A grown = newArray(capacity);
+                    System.arraycopy(array, 0, grown, 0, i);
+                    array = grown;
+                }
+                int end = Math.min(size, capacity);
+                readElements(in, array, i, end);
+                i = end;
             }
             return array;
         }
 
+        @Override
+        public final long size(Writer writer, A array) throws IOException {
+            int size = Array.getLength(array);
+            return Varint.unsignedVarIntSize(size) + elementsSize(array, size);
+        }
+
+        @Override
+        public final A copy(Copier copier, A value) {
+            int size = Array.getLength(value);
+            A copy = newArray(size);
+            System.arraycopy(value, 0, copy, 0, size);
+            return copy;
+        }
+
         protected abstract A newArray(int size);
+
+        protected abstract void writeElements(DataOutput out, A array, int size) throws IOException;
+
+        protected abstract void readElements(DataInput in, A array, int from, int to) throws IOException;
+
+        /**
+         * Return the number of bytes {@link #writeElements(DataOutput, Object, int)} writes, by default the fixed
+         * element size times the number of elements.
+         */
+        protected long elementsSize(A array, int size) {
+            return (long) size * elementSize;
+        }
     }
 
-    private static final Serializer<char[]> CHAR_ARRAY = new PrimitiveArraySerializer<char[]>(forChar()) {
+    private static final Serializer<char[]> CHAR_ARRAY = new PrimitiveArraySerializer<char[]>(2) {
 
         @Override
         protected char[] newArray(int size) {
             return new char[size];
         }
 
+        @Override
+        protected void writeElements(DataOutput out, char[] array, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeChar(array[i]);
+            }
+        }
+
+        @Override
+        protected void readElements(DataInput in, char[] array, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                array[i] = in.readChar();
+            }
+        }
+
     };
 
-    private static final Serializer<short[]> SHORT_ARRAY = new PrimitiveArraySerializer<short[]>(forShort()) {
+    private static final Serializer<short[]> SHORT_ARRAY = new PrimitiveArraySerializer<short[]>(2) {
 
         @Override
         protected short[] newArray(int size) {
             return new short[size];
         }
 
+        @Override
+        protected void writeElements(DataOutput out, short[] array, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeShort(array[i]);
+            }
+        }
+
+        @Override
+        protected void readElements(DataInput in, short[] array, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                array[i] = in.readShort();
+            }
+        }
+
     };
 
-    private static final Serializer<int[]> INT_ARRAY = new PrimitiveArraySerializer<int[]>(forVarInt()) {
+    private static final Serializer<int[]> INT_ARRAY = new PrimitiveArraySerializer<int[]>(4) {
 
         @Override
         protected int[] newArray(int size) {
             return new int[size];
         }
 
+        @Override
+        protected void writeElements(DataOutput out, int[] array, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                Varint.writeSignedVarInt(array[i], out);
+            }
+        }
+
+        @Override
+        protected void readElements(DataInput in, int[] array, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                array[i] = Varint.readSignedVarInt(in);
+            }
+        }
+
+        @Override
+        protected long elementsSize(int[] array, int size) {
+            long bytes = 0;
+            for (int i = 0; i < size; i++) {
+                bytes += Varint.signedVarIntSize(array[i]);
+            }
+            return bytes;
+        }
+
     };
 
-    private static final Serializer<long[]> LONG_ARRAY = new PrimitiveArraySerializer<long[]>(forVarLong()) {
+    private static final Serializer<long[]> LONG_ARRAY = new PrimitiveArraySerializer<long[]>(8) {
 
         @Override
         protected long[] newArray(int size) {
             return new long[size];
         }
 
+        @Override
+        protected void writeElements(DataOutput out, long[] array, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                Varint.writeSignedVarLong(array[i], out);
+            }
+        }
+
+        @Override
+        protected void readElements(DataInput in, long[] array, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                array[i] = Varint.readSignedVarLong(in);
+            }
+        }
+
+        @Override
+        protected long elementsSize(long[] array, int size) {
+            long bytes = 0;
+            for (int i = 0; i < size; i++) {
+                bytes += Varint.signedVarLongSize(array[i]);
+            }
+            return bytes;
+        }
+
     };
 
-    private static final Serializer<float[]> FLOAT_ARRAY = new PrimitiveArraySerializer<float[]>(forFloat()) {
+    private static final Serializer<float[]> FLOAT_ARRAY = new PrimitiveArraySerializer<float[]>(4) {
 
         @Override
         protected float[] newArray(int size) {
             return new float[size];
         }
 
+        @Override
+        protected void writeElements(DataOutput out, float[] array, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeInt(Float.floatToRawIntBits(array[i]));
+            }
+        }
+
+        @Override
+        protected void readElements(DataInput in, float[] array, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                array[i] = Float.intBitsToFloat(in.readInt());
+            }
+        }
+
     };
 
-    private static final Serializer<double[]> DOUBLE_ARRAY = new PrimitiveArraySerializer<double[]>(forDouble()) {
+    private static final Serializer<double[]> DOUBLE_ARRAY = new PrimitiveArraySerializer<double[]>(8) {
 
         @Override
         protected double[] newArray(int size) {
             return new double[size];
         }
 
+        @Override
+        protected void writeElements(DataOutput out, double[] array, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(Double.doubleToRawLongBits(array[i]));
+            }
+        }
+
+        @Override
+        protected void readElements(DataInput in, double[] array, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                array[i] = Double.longBitsToDouble(in.readLong());
+            }
+        }
+
     };
 
     private static class ArraySerializer<A> implements Serializer<A[]> {
@@ -340,17 +874,46 @@ public class Serializers {
             }
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public A[] read(Reader reader, DataInput in) throws IOException {
+            return readInto(reader, in, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public A[] readInto(Reader reader, DataInput in, A[] target) throws IOException {
             int size = Serializers.forVarUInt().read(reader, in);
-            A[] array = (A[]) Array.newInstance(type, size);
+            reader.checkLength(size, REFERENCE_SIZE);
+            A[] array = target != null && target.length == size ? target : (A[]) Array.newInstance(type, initialCapacity(in, size));
             for (int i = 0; i < size; i++) {
+                if (i == array.length) {
+                    array = Arrays.copyOf(array, (int) Math.min(size, 2L * i));
+                }
                 array[i] = (A) serializer.read(reader, in);
             }
             return array;
         }
 
+        @SuppressWarnings("unchecked")
+        @Override
+        public long size(Writer writer, A[] array) throws IOException {
+            long size = Varint.unsignedVarIntSize(array.length);
+            for (A value : array) {
+                size += ((Serializer<A>) serializer).size(writer, value);
+            }
+            return size;
+        }
+
+        @Override
+        public A[] copy(Copier copier, A[] value) throws IOException {
+            A[] copy = value.clone();
+            copier.register(value, copy);
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = copier.copy(copy[i], serializer);
+            }
+            return copy;
+        }
+
     }
 
     private static final Serializer<Object[]> OBJECT_ARRAY = new Serializer<Object[]>() {
@@ -365,16 +928,282 @@ public class Serializers {
 
         @Override
         public Object[] read(Reader reader, DataInput in) throws IOException {
+            return readInto(reader, in, null);
+        }
+
+        @Override
+        public Object[] readInto(Reader reader, DataInput in, Object[] target) throws IOException {
             int size = Serializers.forVarUInt().read(reader, in);
-            Object[] array = new Object[size];
+            reader.checkLength(size, REFERENCE_SIZE);
+            Object[] array = target != null && target.length == size ? target : new Object[initialCapacity(in, size)];
             for (int i = 0; i < size; i++) {
+                if (i == array.length) {
+                    array = Arrays.copyOf(array, (int) Math.min(size, 2L * i));
+                }
                 array[i] = reader.readTypeAndObject(in);
             }
             return array;
         }
 
+        @Override
+        public Object[] copy(Copier copier, Object[] value) throws IOException {
+            return copyObjectArray(copier, value);
+        }
+
+        @Override
+        public long size(Writer writer, Object[] value) throws IOException {
+            long size = Varint.unsignedVarIntSize(value.length);
+            for (Object element : value) {
+                size += writer.sizeOf(element);
+            }
+            return size;
+        }
+
+    };
+
+    /**
+     * Object array serializer which writes the type header once per run of elements with the same runtime class instead
+     * of once per element. Each run is written as its length, the type header and the elements through the serializer
+     * of that type.
+     */
+    private static final Serializer<Object[]> TYPE_RUN_OBJECT_ARRAY = new Serializer<Object[]>() {
+
+        @Override
+        public void write(Writer writer, DataOutput out, Object[] array) throws IOException {
+            Serializers.forVarUInt().write(writer, out, array.length);
+            int i = 0;
+            while (i < array.length) {
+                Class<?> type = typeOf(array[i]);
+                int end = i + 1;
+                while (end < array.length && typeOf(array[end]) == type) {
+                    end++;
+                }
+                Serializers.forVarUInt().write(writer, out, end - i); // run length
+                Serializer<Object> serializer = writer.writeType(type, out);
+                for (; i < end; i++) {
+                    writer.writeObject(array[i], out, serializer);
+                }
+            }
+        }
+
+        @Override
+        public Object[] read(Reader reader, DataInput in) throws IOException {
+            return readInto(reader, in, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object[] readInto(Reader reader, DataInput in, Object[] target) throws IOException {
+            int size = Serializers.forVarUInt().read(reader, in);
+            reader.checkLength(size, REFERENCE_SIZE);
+            Object[] array = target != null && target.length == size ? target : new Object[initialCapacity(in, size)];
+            int i = 0;
+            while (i < size) {
+                int end = i + Serializers.forVarUInt().read(reader, in); // run length
+                if (end > size || end <= i) {
+                    throw new StreamCorruptedException("Run of " + (end - i) + " elements does not fit array size " + size
+                                                       + ".");
+                }
+                Serializer<Object> serializer = (Serializer<Object>) reader.readType(in);
+                for (; i < end; i++) {
+                    if (i == array.length) {
+                        array = Arrays.copyOf(array, (int) Math.min(size, 2L * i));
+                    }
+                    array[i] = reader.readObject(in, serializer);
+                }
+            }
+            return array;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public long size(Writer writer, Object[] array) throws IOException {
+            long size = Varint.unsignedVarIntSize(array.length);
+            int i = 0;
+            while (i < array.length) {
+                Class<?> type = typeOf(array[i]);
+                int end = i + 1;
+                while (end < array.length && typeOf(array[end]) == type) {
+                    end++;
+                }
+                size += Varint.unsignedVarIntSize(end - i) + writer.sizeOfType(type);
+                Serializer<Object> serializer = (Serializer<Object>) writer.stasis().serializerFor(type);
+                for (; i < end; i++) {
+                    size += writer.sizeOf(array[i], serializer);
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Object[] copy(Copier copier, Object[] value) throws IOException {
+            return copyObjectArray(copier, value);
+        }
+
+        private Class<?> typeOf(Object value) {
+            return value == null ? Void.class : value.getClass();
+        }
+
     };
 
+    /**
+     * Serializer which prefixes the value with its encoded length and the number of objects registered inside it, so
+     * that {@link Reader#skipObject(DataInput)} can jump over it.
+     */
+    private static class FramedSerializer<A> implements Serializer<A>, SkippableSerializer {
+
+        private final Serializer<A> serializer;
+
+        public FramedSerializer(Serializer<A> serializer) {
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void write(Writer writer, DataOutput out, A value) throws IOException {
+            if (!(out instanceof ByteArrayDataOutput)) {
+                // Nested framed values are then written into the same buffer.
+                ByteArrayDataOutput buffer = new ByteArrayDataOutput();
+                write(writer, buffer, value);
+                out.write(buffer.array(), 0, buffer.size());
+                return;
+            }
+            ByteArrayDataOutput bytes = (ByteArrayDataOutput) out;
+            int start = bytes.size();
+            bytes.skip(2); // room for a one-byte length and nested object count
+            int registeredObjects = writer.registeredObjects();
+            serializer.write(writer, bytes, value);
+            int length = bytes.size() - start - 2;
+            int nested = writer.registeredObjects() - registeredObjects;
+            int prefix = Varint.unsignedVarIntSize(length) + Varint.unsignedVarIntSize(nested);
+            if (prefix > 2) {
+                bytes.skip(prefix - 2);
+                System.arraycopy(bytes.array(), start + 2, bytes.array(), start + prefix, length);
+            }
+            int offset = Varint.writeUnsignedVarInt(length, bytes.array(), start); // byte length
+            Varint.writeUnsignedVarInt(nested, bytes.array(), offset); // nested object count
+        }
+
+        @Override
+        public A read(Reader reader, DataInput in) throws IOException {
+            Varint.readUnsignedVarInt(in); // byte length
+            Varint.readUnsignedVarInt(in); // nested object count
+            return serializer.read(reader, in);
+        }
+
+        @Override
+        public long size(Writer writer, A value) throws IOException {
+            int registeredObjects = writer.registeredObjects();
+            long length = serializer.size(writer, value);
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Framed value of " + length + " bytes does not fit a frame.");
+            }
+            return Varint.unsignedVarIntSize((int) length)
+                    + Varint.unsignedVarIntSize(writer.registeredObjects() - registeredObjects) + length;
+        }
+
+        @Override
+        public A copy(Copier copier, A value) throws IOException {
+            return serializer.copy(copier, value);
+        }
+
+        @Override
+        public void skip(Reader reader, DataInput in) throws IOException {
+            int length = Varint.readUnsignedVarInt(in);
+            int nestedObjects = Varint.readUnsignedVarInt(in);
+            // Every nested object takes at least one byte.
+            if (length < 0 || nestedObjects < 0 || nestedObjects > length) {
+                throw new StreamCorruptedException("Framed value of " + length + " bytes can not hold " + nestedObjects
+                                                   + " nested objects.");
+            }
+            skipFully(in, length);
+            reader.registerSkippedObjects(nestedObjects);
+        }
+
+    }
+
+    /**
+     * Serializer which writes the value with its own references and length-prefixed, so that it can be read as a
+     * {@link Lazy} that keeps only the bytes until the value is needed.
+     */
+    private static class LazySerializer<A> implements Serializer<Lazy<A>>, SkippableSerializer {
+
+        private final Class<A> type;
+
+        public LazySerializer(Class<A> type) {
+            this.type = type;
+        }
+
+        @Override
+        public void write(Writer writer, DataOutput out, Lazy<A> lazy) throws IOException {
+            byte[] bytes = lazy.bytes();
+            if (bytes != null) {
+                Varint.writeUnsignedVarInt(bytes.length, out); // byte length
+                out.write(bytes); // content
+                return;
+            }
+            ByteArrayDataOutput buffer = encode(writer, lazy);
+            try {
+                Varint.writeUnsignedVarInt(buffer.size(), out); // byte length
+                out.write(buffer.array(), 0, buffer.size()); // content
+            } finally {
+                buffer.release();
+            }
+        }
+
+        @Override
+        public Lazy<A> read(Reader reader, DataInput in) throws IOException {
+            int length = Varint.readUnsignedVarInt(in);
+            reader.checkLength(length, 1);
+            return new Lazy<>(reader.stasis(), type, readBytes(in, length));
+        }
+
+        @Override
+        public void skip(Reader reader, DataInput in) throws IOException {
+            int length = Varint.readUnsignedVarInt(in);
+            if (length < 0) {
+                throw new StreamCorruptedException("Lazy value of " + length + " bytes.");
+            }
+            skipFully(in, length);
+        }
+
+        @Override
+        public Lazy<A> copy(Copier copier, Lazy<A> lazy) throws IOException {
+            return lazy.copy(copier);
+        }
+
+        @Override
+        public long size(Writer writer, Lazy<A> lazy) throws IOException {
+            byte[] bytes = lazy.bytes();
+            if (bytes != null) {
+                return Varint.unsignedVarIntSize(bytes.length) + bytes.length;
+            }
+            ByteArrayDataOutput buffer = encode(writer, lazy);
+            try {
+                return Varint.unsignedVarIntSize(buffer.size()) + buffer.size();
+            } finally {
+                buffer.release();
+            }
+        }
+
+        /**
+         * Encode the decoded value of the lazy value with its own writer into a pooled buffer that must be released.
+         */
+        private ByteArrayDataOutput encode(Writer writer, Lazy<A> lazy) throws IOException {
+            ByteArrayDataOutput buffer = new ByteArrayDataOutput(BufferPool.shared());
+            Writer valueWriter = writer.stasis().newWriter();
+            try {
+                valueWriter.writeObject(lazy.get(), buffer, type);
+            } catch (IOException | RuntimeException e) {
+                buffer.release();
+                throw e;
+            } finally {
+                valueWriter.close();
+            }
+            return buffer;
+        }
+
+    }
+
     private static class EnumSerializer<A extends Enum<A>> implements Serializer<A> {
 
         private final Class<A> type;
@@ -393,6 +1222,11 @@ public class Serializers {
             return type.getEnumConstants()[forVarUInt().read(reader, in)];
         }
 
+        @Override
+        public long size(Writer writer, A value) {
+            return Varint.unsignedVarIntSize(value.ordinal());
+        }
+
     };
 
     public static Serializer<Void> forNull() {
@@ -455,6 +1289,20 @@ public class Serializers {
         return BYTE_ARRAY;
     }
 
+    /**
+     * Read byte arrays as read-only buffers which share memory with a {@link ByteBufferDataInput}.
+     */
+    public static Serializer<ByteBuffer> forByteBuffer() {
+        return BYTE_BUFFER;
+    }
+
+    /**
+     * Read strings as {@link Utf8View}s which share memory with a {@link ByteBufferDataInput}.
+     */
+    public static Serializer<Utf8View> forUtf8View() {
+        return UTF8_VIEW;
+    }
+
     public static Serializer<char[]> forCharArray() {
         return CHAR_ARRAY;
     }
@@ -483,12 +1331,152 @@ public class Serializers {
         return OBJECT_ARRAY;
     }
 
+    public static Serializer<Object[]> forTypeRunObjectArray() {
+        return TYPE_RUN_OBJECT_ARRAY;
+    }
+
     public static <A> Serializer<A[]> forArray(Class<A> type, Serializer<A> serializer) {
         return new ArraySerializer<>(type, serializer);
     }
 
+    /**
+     * Length-prefix the values of the given serializer so that they can be skipped with
+     * {@link Reader#skipObject(DataInput)}.
+     */
+    public static <A> Serializer<A> forFramed(Serializer<A> serializer) {
+        return new FramedSerializer<>(serializer);
+    }
+
+    /**
+     * Write values of the given registered type so that they are read as {@link Lazy} values, which are decoded on
+     * first access.
+     */
+    public static <A> Serializer<Lazy<A>> forLazy(Class<A> type) {
+        return new LazySerializer<>(type);
+    }
+
     public static <A extends Enum<A>> Serializer<A> forEnum(Class<A> type) {
         return new EnumSerializer<>(type);
     }
 
+    public static Serializer<Instant> forInstant() {
+        return INSTANT;
+    }
+
+    public static Serializer<Duration> forDuration() {
+        return DURATION;
+    }
+
+    public static Serializer<LocalDate> forLocalDate() {
+        return LOCAL_DATE;
+    }
+
+    public static Serializer<LocalTime> forLocalTime() {
+        return LOCAL_TIME;
+    }
+
+    public static Serializer<LocalDateTime> forLocalDateTime() {
+        return LOCAL_DATE_TIME;
+    }
+
+    public static Serializer<UUID> forUUID() {
+        return UUID_SERIALIZER;
+    }
+
+    public static Serializer<BigInteger> forBigInteger() {
+        return BIG_INTEGER;
+    }
+
+    public static Serializer<BigDecimal> forBigDecimal() {
+        return BIG_DECIMAL;
+    }
+
+    private static Object[] copyObjectArray(Copier copier, Object[] value) throws IOException {
+        Object[] copy = value.clone();
+        copier.register(value, copy);
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = copier.copy(copy[i]);
+        }
+        return copy;
+    }
+
+    private static void writeBuffer(DataOutput out, ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            ByteBuffer source = buffer.duplicate();
+            byte[] chunk = new byte[Math.min(source.remaining(), 8192)];
+            while (source.hasRemaining()) {
+                int length = Math.min(source.remaining(), chunk.length);
+                source.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+    }
+
+    private static ByteBuffer readBuffer(DataInput in, int size) throws IOException {
+        if (in instanceof ByteBufferDataInput) {
+            return ((ByteBufferDataInput) in).slice(size);
+        } else {
+            return ByteBuffer.wrap(readBytes(in, size)).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Return the capacity to allocate for an array of the given length before its elements are read. Lengths above
+     * {@link #READ_CHUNK} are trusted only when the input is known to hold at least a byte per element, otherwise the
+     * array is grown while reading so that a corrupt length fails at the end of input instead of allocating up front.
+     */
+    static int initialCapacity(DataInput in, int length) {
+        if (length <= READ_CHUNK || in instanceof ByteBufferDataInput && ((ByteBufferDataInput) in).buffer().remaining() >= length) {
+            return length;
+        }
+        return READ_CHUNK;
+    }
+
+    static byte[] readBytes(DataInput in, int length) throws IOException {
+        byte[] bytes = new byte[initialCapacity(in, length)];
+        in.readFully(bytes);
+        for (int read = bytes.length; read < length; read = bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+            in.readFully(bytes, read, bytes.length - read);
+        }
+        return bytes;
+    }
+
+    /**
+     * Number of bytes String.getBytes(UTF_8) returns for the value. Unpaired surrogates are replaced with '?'.
+     */
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    static void skipFully(DataInput in, int length) throws IOException {
+        while (length > 0) {
+            int skipped = in.skipBytes(length);
+            if (skipped <= 0) {
+                in.readByte(); // throws EOFException at the end of input
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
 }
@@ -0,0 +1,16 @@
+package org.stasis;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Serializer whose encoded values can be skipped without decoding them.
+ */
+interface SkippableSerializer {
+
+    /**
+     * Skip the encoded value. Objects registered inside the value must be reserved with
+     * {@link Stasis.Reader#registerSkippedObjects(int)}, the value itself is registered by the caller.
+     */
+    void skip(Stasis.Reader reader, DataInput in) throws IOException;
+}
@@ -2,12 +2,36 @@ package org.stasis;
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.stasis.metrics.MetricsListener;
 
 public class Stasis {
 
@@ -15,6 +39,24 @@ public class Stasis {
     private static final int OBJECT = 0;
     private static final int REFERENCE = 1;
 
+    // Compact header codes below INLINE_CODES hold the value itself, other headers are shifted by INLINE_CODES.
+    private static final int NO_INLINE = -1;
+    private static final int INLINE_NULL = 0;
+    private static final int INLINE_FALSE = 1;
+    private static final int INLINE_TRUE = 2;
+    private static final int INLINE_EMPTY_STRING = 3;
+    private static final int INLINE_INT = 4;
+    private static final int INLINE_INT_MIN = -8;
+    private static final int INLINE_CODES = 64;
+    private static final int INLINE_INT_MAX = INLINE_INT_MIN + INLINE_CODES - INLINE_INT - 1;
+
+    private static final Object SKIPPED = new Object();
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, Instant.class, Duration.class, LocalDate.class, LocalTime.class,
+            LocalDateTime.class, UUID.class, BigInteger.class, BigDecimal.class));
+
     private static final class SerializerEntry {
 
         private final Class<?> type;
@@ -32,6 +74,13 @@ public class Stasis {
     private final Map<Class<?>, SerializerEntry> typeToSerializer = new ConcurrentHashMap<>();
 
     private volatile ReferenceProviderFactory refsFactory = new IdentityReferenceProviderFactory();
+    private volatile boolean compactHeaders = false;
+    private volatile MetricsListener metrics = null;
+    private volatile int latencySampleInterval = 0;
+    private volatile int maxLength = Integer.MAX_VALUE;
+    private volatile int maxStringBytes = Integer.MAX_VALUE;
+    private volatile int maxDepth = Integer.MAX_VALUE;
+    private volatile long allocationBudget = Long.MAX_VALUE;
 
     private Stasis() {
     }
@@ -106,11 +155,84 @@ public class Stasis {
         return this;
     }
 
+    /**
+     * Register compact serializers for the java.time types {@link Instant}, {@link Duration}, {@link LocalDate},
+     * {@link LocalTime} and {@link LocalDateTime}, and for {@link UUID}, {@link BigInteger} and {@link BigDecimal}.
+     */
+    public Stasis registerCommonTypes() {
+        register(Instant.class, Serializers.forInstant());
+        register(Duration.class, Serializers.forDuration());
+        register(LocalDate.class, Serializers.forLocalDate());
+        register(LocalTime.class, Serializers.forLocalTime());
+        register(LocalDateTime.class, Serializers.forLocalDateTime());
+        register(UUID.class, Serializers.forUUID());
+        register(BigInteger.class, Serializers.forBigInteger());
+        register(BigDecimal.class, Serializers.forBigDecimal());
+        return this;
+    }
+
     public Stasis setReferenceProviderFactory(ReferenceProviderFactory refsFactory) {
         this.refsFactory = refsFactory;
         return this;
     }
 
+    /**
+     * Use compact headers in writers and readers created after this call. Compact headers encode null, booleans, empty
+     * strings and integers from -8 to 51 in the header byte itself when their types use the built-in serializers.
+     * Other headers are shifted to make room for the inline codes, so both sides must use the same setting.
+     */
+    public Stasis setCompactHeaders(boolean compactHeaders) {
+        this.compactHeaders = compactHeaders;
+        return this;
+    }
+
+    /**
+     * Report measurements of writers and readers created after this call to the given listener, or stop reporting when
+     * it is null. The latency of every latencySampleInterval:th object is measured, 0 measures none.
+     */
+    public Stasis setMetricsListener(MetricsListener metrics, int latencySampleInterval) {
+        if (latencySampleInterval < 0) {
+            throw new IllegalArgumentException("Negative sample interval " + latencySampleInterval + ".");
+        }
+        this.latencySampleInterval = latencySampleInterval;
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Limit the length of arrays and collections read by readers created after this call. Longer lengths fail the read
+     * with a {@link StreamCorruptedException} before anything is allocated for them.
+     */
+    public Stasis setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    /**
+     * Limit the UTF-8 length of strings read by readers created after this call.
+     */
+    public Stasis setMaxStringBytes(int maxStringBytes) {
+        this.maxStringBytes = maxStringBytes;
+        return this;
+    }
+
+    /**
+     * Limit how deeply objects can be nested in the graphs read by readers created after this call.
+     */
+    public Stasis setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Limit the approximate number of bytes each reader created after this call may allocate for arrays, collections
+     * and strings over its lifetime.
+     */
+    public Stasis setAllocationBudget(long allocationBudget) {
+        this.allocationBudget = allocationBudget;
+        return this;
+    }
+
     public synchronized <A> Stasis register(Class<A> type, Serializer<? super A> serializer) {
         SerializerEntry existingEntry = typeToSerializer.get(type);
         SerializerEntry entry = new SerializerEntry(type, serializer, existingEntry == null ? serializers.size() : existingEntry.index);
@@ -128,32 +250,93 @@ public class Stasis {
         return (Serializer<? super A>) serializerEntryFor(type).serializer;
     }
 
+    /**
+     * Return a deep copy of the object graph without encoding it. Objects are copied through their registered
+     * serializers (see {@link Serializer#copy(Copier, Object)}) and shared objects stay shared in the copy. Strings,
+     * boxed primitives, enums and the types of {@link #registerCommonTypes()} are immutable and not copied.
+     */
+    public <A> A copy(A object) throws IOException {
+        Copier copier = new Copier();
+        try {
+            return copier.copy(object);
+        } finally {
+            copier.close();
+        }
+    }
+
     public Writer newWriter() {
-        return new Writer(refsFactory.createWriter());
+        return new Writer(refsFactory.createWriter(), compactHeaders, metrics, latencySampleInterval);
     }
 
     public Reader newReader() {
-        return new Reader(refsFactory.createReader());
+        return new Reader(refsFactory.createReader(), compactHeaders, metrics, latencySampleInterval);
     }
 
     public class Writer {
 
-        private final ReferenceWriter refs;
+        private ReferenceWriter refs;
+        private final boolean compactHeaders;
+        private final MetricsListener metrics;
+        private final int latencySampleInterval;
+        private final Recording recording = Recording.writerSession();
+        private int registeredObjects = 0;
+        private int unsampledObjects = 0;
+        // Session totals for the recording.
+        private int depth = 0;
+        private int objects = 0;
+        private int references = 0;
+        private long bytes = 0;
+        // Objects registered while sizing, numbered from sizingBase and discarded when sizing ends.
+        private ReferenceWriter sizingRefs;
+        private int sizingBase;
+        private CountingDataOutput counter;
 
-        private Writer(ReferenceWriter refs) {
+        private Writer(ReferenceWriter refs, boolean compactHeaders, MetricsListener metrics, int latencySampleInterval) {
             this.refs = refs;
+            this.compactHeaders = compactHeaders;
+            this.metrics = metrics;
+            this.latencySampleInterval = latencySampleInterval;
         }
 
         /**
          * Close this writer to release reserved resources.
          */
         public void close() {
+            if (metrics != null) {
+                metrics.writerClosed(registeredObjects);
+            }
+            if (recording != null) {
+                recording.close(objects, references, bytes, registeredObjects);
+            }
             refs.close();
         }
 
+        /**
+         * Forget the objects written so far, so that the next object starts an independent stream which is read with a
+         * new reader. Lets one writer be reused for many messages. The references of the built-in
+         * {@link ReferenceProviderFactory}s are cleared, other references are replaced by a new
+         * {@link ReferenceWriter} of the factory.
+         */
+        public void reset() {
+            if (refs instanceof AbstractMapBasedReferenceWriter) {
+                ((AbstractMapBasedReferenceWriter) refs).clear();
+            } else {
+                refs.close();
+                refs = refsFactory.createWriter();
+            }
+            registeredObjects = 0;
+        }
+
         @SuppressWarnings("unchecked")
         public void writeTypeAndObject(Object object, DataOutput out) throws IOException {
-            int ref = refs.referenceFor(object);
+            if (compactHeaders) {
+                int code = inlineCodeFor(object);
+                if (code != NO_INLINE) {
+                    Varint.writeUnsignedVarInt(code, out);
+                    return;
+                }
+            }
+            int ref = referenceFor(object);
             if (noRefFound(ref)) {
                 SerializerEntry entry = serializerEntryFor(classOf(object));
                 int serializerIndex = entry.index;
@@ -164,12 +347,23 @@ public class Stasis {
             }
         }
 
+        /**
+         * Write the header of the given type and return its serializer. Any number of objects of exactly that type can
+         * then follow, written with {@link #writeObject(Object, DataOutput, Serializer)} and the returned serializer.
+         */
+        @SuppressWarnings("unchecked")
+        public Serializer<Object> writeType(Class<?> type, DataOutput out) throws IOException {
+            SerializerEntry entry = serializerEntryFor(type);
+            Varint.writeUnsignedVarInt(entry.index, out);
+            return (Serializer<Object>) entry.serializer;
+        }
+
         public <A> void writeObject(A object, DataOutput out, Class<? super A> type) throws IOException {
             writeObject(object, out, serializerFor(type));
         }
 
         public <A> void writeObject(A object, DataOutput out, Serializer<? super A> serializer) throws IOException {
-            int ref = refs.referenceFor(object);
+            int ref = referenceFor(object);
             if (noRefFound(ref)) {
                 writeObject(object, out, 0, serializer);
             } else {
@@ -182,13 +376,252 @@ public class Stasis {
         }
 
         private <A> void writeObject(A object, DataOutput out, int headerData, Serializer<A> serializer) throws IOException {
-            Varint.writeUnsignedVarInt(toHeader(headerData, OBJECT), out);
+            if ((metrics != null || recording != null) && sizingRefs == null) {
+                writeMeasuredObject(object, out, headerData, serializer);
+                return;
+            }
+            writeHeader(toHeader(headerData, OBJECT), out);
             serializer.write(this, out, object);
-            refs.registerObject(object);
+            register(object);
+        }
+
+        private <A> void writeMeasuredObject(A object, DataOutput out, int headerData, Serializer<A> serializer) throws IOException {
+            long start = -1;
+            if (latencySampleInterval > 0 && ++unsampledObjects == latencySampleInterval) {
+                unsampledObjects = 0;
+                start = System.nanoTime();
+            }
+            Object event = recording == null ? null : recording.beginObject();
+            writeHeader(toHeader(headerData, OBJECT), out);
+            long position = positionOf(out);
+            depth++;
+            try {
+                serializer.write(this, out, object);
+            } finally {
+                depth--;
+            }
+            register(object);
+            long nanos = start < 0 ? -1 : System.nanoTime() - start;
+            long length = position < 0 ? -1 : positionOf(out) - position;
+            objects++;
+            if (depth == 0) {
+                bytes = bytes < 0 || length < 0 ? -1 : bytes + length;
+            }
+            if (metrics != null) {
+                metrics.objectWritten(classOf(object), length, nanos);
+            }
+            if (recording != null) {
+                recording.endObject(event, true, classOf(object), length);
+            }
         }
 
         private void writeRef(DataOutput out, int ref) throws IOException {
-            Varint.writeUnsignedVarInt(toHeader(ref, REFERENCE), out);
+            writeHeader(toHeader(ref, REFERENCE), out);
+            if (sizingRefs != null) {
+                return;
+            }
+            if (metrics != null) {
+                metrics.referenceWritten();
+            }
+            references++;
+        }
+
+        private void writeHeader(int header, DataOutput out) throws IOException {
+            Varint.writeUnsignedVarInt(compactHeaders ? header + INLINE_CODES : header, out);
+        }
+
+        /**
+         * Return the number of bytes {@link #writeTypeAndObject(Object, DataOutput)} would write for the object at this
+         * point of the stream, without writing anything. Objects already written are sized as references, as are
+         * repeated objects within the sized graph, but the references of this writer are left unchanged.
+         */
+        @SuppressWarnings("unchecked")
+        public long sizeOf(Object object) throws IOException {
+            boolean started = beginSizing();
+            try {
+                if (compactHeaders && inlineCodeFor(object) != NO_INLINE) {
+                    return 1;
+                }
+                int ref = referenceFor(object);
+                if (!noRefFound(ref)) {
+                    return headerSize(toHeader(ref, REFERENCE));
+                }
+                SerializerEntry entry = serializerEntryFor(classOf(object));
+                return sizeOfObject(object, entry.index, (Serializer<Object>) entry.serializer);
+            } finally {
+                if (started) {
+                    endSizing();
+                }
+            }
+        }
+
+        /**
+         * Return the number of bytes {@link #writeObject(Object, DataOutput, Serializer)} would write for the object.
+         */
+        public <A> long sizeOf(A object, Serializer<? super A> serializer) throws IOException {
+            boolean started = beginSizing();
+            try {
+                int ref = referenceFor(object);
+                if (!noRefFound(ref)) {
+                    return headerSize(toHeader(ref, REFERENCE));
+                }
+                return sizeOfObject(object, 0, serializer);
+            } finally {
+                if (started) {
+                    endSizing();
+                }
+            }
+        }
+
+        /**
+         * Return the number of bytes {@link #writeType(Class, DataOutput)} writes for the type.
+         */
+        public int sizeOfType(Class<?> type) {
+            return Varint.unsignedVarIntSize(serializerEntryFor(type).index);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <A> long sizeOfObject(A object, int headerData, Serializer<? super A> serializer) throws IOException {
+            long size = headerSize(toHeader(headerData, OBJECT)) + ((Serializer<A>) serializer).size(this, object);
+            register(object);
+            return size;
+        }
+
+        private int headerSize(int header) {
+            return Varint.unsignedVarIntSize(compactHeaders ? header + INLINE_CODES : header);
+        }
+
+        /**
+         * Size the value by writing it to an output that only counts bytes.
+         */
+        <A> long countWrittenBytes(Serializer<A> serializer, A value) throws IOException {
+            boolean started = beginSizing();
+            try {
+                if (counter == null) {
+                    counter = new CountingDataOutput();
+                }
+                long start = counter.count();
+                serializer.write(this, counter, value);
+                return counter.count() - start;
+            } finally {
+                if (started) {
+                    endSizing();
+                }
+            }
+        }
+
+        private boolean beginSizing() {
+            if (sizingRefs != null) {
+                return false;
+            }
+            sizingRefs = refsFactory.createWriter();
+            sizingBase = registeredObjects;
+            return true;
+        }
+
+        private void endSizing() {
+            sizingRefs.close();
+            sizingRefs = null;
+            registeredObjects = sizingBase;
+            if (counter != null) {
+                counter.reset();
+            }
+        }
+
+        private int referenceFor(Object object) {
+            int ref = refs.referenceFor(object);
+            if (noRefFound(ref) && sizingRefs != null) {
+                ref = sizingRefs.referenceFor(object);
+                if (!noRefFound(ref)) {
+                    ref += sizingBase;
+                }
+            }
+            return ref;
+        }
+
+        private void register(Object object) {
+            (sizingRefs == null ? refs : sizingRefs).registerObject(object);
+            registeredObjects++;
+        }
+
+        Stasis stasis() {
+            return Stasis.this;
+        }
+
+        /**
+         * Number of objects registered to the references of this writer so far.
+         */
+        int registeredObjects() {
+            return registeredObjects;
+        }
+
+    }
+
+    public class Copier {
+
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+        // Shared by all values copied through bytes, so objects nested in several of them stay shared.
+        private Writer writer;
+        private Reader reader;
+
+        private Copier() {
+        }
+
+        @SuppressWarnings("unchecked")
+        public <A> A copy(A object) throws IOException {
+            if (object == null || isImmutable(object)) {
+                return object;
+            }
+            Object copy = copies.get(object);
+            if (copy != null) {
+                return (A) copy;
+            }
+            return copy(object, (Serializer<A>) serializerEntryFor(object.getClass()).serializer);
+        }
+
+        /**
+         * Copy the object with the given serializer instead of the one registered for its type.
+         */
+        @SuppressWarnings("unchecked")
+        public <A> A copy(A object, Serializer<? super A> serializer) throws IOException {
+            if (object == null || isImmutable(object)) {
+                return object;
+            }
+            Object copy = copies.get(object);
+            if (copy == null) {
+                copy = ((Serializer<A>) serializer).copy(this, object);
+                copies.put(object, copy);
+            }
+            return (A) copy;
+        }
+
+        /**
+         * Register the copy of an object before its nested objects are copied, so that references back to the object
+         * resolve to the copy.
+         */
+        public void register(Object original, Object copy) {
+            copies.put(original, copy);
+        }
+
+        <A> A copyThroughBytes(Serializer<A> serializer, A value) throws IOException {
+            if (writer == null) {
+                writer = newWriter();
+                reader = newReader();
+            }
+            ByteArrayDataOutput out = new ByteArrayDataOutput();
+            serializer.write(writer, out, value);
+            return serializer.read(reader, new ByteBufferDataInput(ByteBuffer.wrap(out.array(), 0, out.size())));
+        }
+
+        private void close() {
+            if (writer != null) {
+                writer.close();
+                reader.close();
+            }
+        }
+
+        private boolean isImmutable(Object object) {
+            return IMMUTABLE_TYPES.contains(object.getClass()) || object instanceof Enum;
         }
 
     }
@@ -196,20 +629,53 @@ public class Stasis {
     public class Reader {
 
         private final ReferenceReader refs;
+        private final boolean compactHeaders;
+        private final MetricsListener metrics;
+        private final int latencySampleInterval;
+        private final Recording recording = Recording.readerSession();
+        private final int maxLength = Stasis.this.maxLength;
+        private final int maxStringBytes = Stasis.this.maxStringBytes;
+        private final int maxDepth = Stasis.this.maxDepth;
+        private long allocationBudget = Stasis.this.allocationBudget;
+        private int registeredObjects = 0;
+        private int unsampledObjects = 0;
+        // Session totals for the recording.
+        private int depth = 0;
+        private int objects = 0;
+        private int references = 0;
+        private long bytes = 0;
 
-        private Reader(ReferenceReader refs) {
+        private Reader(ReferenceReader refs, boolean compactHeaders, MetricsListener metrics, int latencySampleInterval) {
             this.refs = refs;
+            this.compactHeaders = compactHeaders;
+            this.metrics = metrics;
+            this.latencySampleInterval = latencySampleInterval;
         }
 
         /**
          * Close this reader to release reserved resources.
          */
         public void close() {
+            if (metrics != null) {
+                metrics.readerClosed(registeredObjects);
+            }
+            if (recording != null) {
+                recording.close(objects, references, bytes, registeredObjects);
+            }
             refs.close();
         }
 
         public Object readTypeAndObject(DataInput in) throws IOException {
-            int header = Varint.readUnsignedVarInt(in);
+            return readTypeAndObject(Varint.readUnsignedVarInt(in), in);
+        }
+
+        private Object readTypeAndObject(int header, DataInput in) throws IOException {
+            if (compactHeaders) {
+                if (header < INLINE_CODES) {
+                    return inlineValueFor(header);
+                }
+                header -= INLINE_CODES;
+            }
             if (isRef(header)) {
                 return readFromRef(header);
             } else {
@@ -219,13 +685,30 @@ public class Stasis {
             }
         }
 
+        /**
+         * Read a type header written by {@link Writer#writeType(Class, DataOutput)} and return its serializer.
+         */
+        public Serializer<?> readType(DataInput in) throws IOException {
+            return serializerFor(Varint.readUnsignedVarInt(in));
+        }
+
         @SuppressWarnings("unchecked")
         public <A> A readObject(DataInput in, Class<? super A> type) throws IOException {
             return readObject(in, (Serializer<A>) serializerFor(type));
         }
 
         public <A> A readObject(DataInput in, Serializer<A> serializer) throws IOException {
-            int header = Varint.readUnsignedVarInt(in);
+            return readObject(Varint.readUnsignedVarInt(in), in, serializer);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <A> A readObject(int header, DataInput in, Serializer<A> serializer) throws IOException {
+            if (compactHeaders) {
+                if (header < INLINE_CODES) {
+                    return (A) inlineValueFor(header);
+                }
+                header -= INLINE_CODES;
+            }
             if (isRef(header)) {
                 return readFromRef(header);
             } else {
@@ -233,17 +716,230 @@ public class Stasis {
             }
         }
 
+        /**
+         * Skip the next object in the input. Objects whose serializer is length-prefixed (see
+         * {@link Serializers#forFramed(Serializer)}) are skipped without decoding them, other objects are read and
+         * discarded. References to the skipped object or to objects inside it can not be read afterwards.
+         */
+        public void skipObject(DataInput in) throws IOException {
+            int header = Varint.readUnsignedVarInt(in);
+            if (compactHeaders) {
+                if (header < INLINE_CODES) {
+                    return;
+                }
+                header -= INLINE_CODES;
+            }
+            if (!isRef(header)) {
+                Serializer<?> serializer = serializerFor(readSerializerIndex(header));
+                if (serializer instanceof SkippableSerializer) {
+                    ((SkippableSerializer) serializer).skip(this, in);
+                    register(SKIPPED);
+                } else {
+                    read(in, serializer);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public <A> A readObjectInto(DataInput in, Class<? super A> type, A target) throws IOException {
+            return readObjectInto(in, (Serializer<A>) serializerFor(type), target);
+        }
+
+        /**
+         * Read an object like {@link #readObject(DataInput, Serializer)}, but let the serializer reuse the given target
+         * object. Returns the object read, which is a referenced object, the target or a new object.
+         * <p>
+         * The object is registered to the references of this reader like any object read, because the writer numbered
+         * it too, so a reader which reads many messages into the same target keeps one reference per message. Loops
+         * that should not grow should read each message with a new reader.
+         */
+        @SuppressWarnings("unchecked")
+        public <A> A readObjectInto(DataInput in, Serializer<A> serializer, A target) throws IOException {
+            int header = Varint.readUnsignedVarInt(in);
+            if (compactHeaders) {
+                if (header < INLINE_CODES) {
+                    return (A) inlineValueFor(header);
+                }
+                header -= INLINE_CODES;
+            }
+            if (isRef(header)) {
+                return readFromRef(header);
+            } else {
+                enter();
+                A object;
+                try {
+                    object = serializer.readInto(this, in, target);
+                } finally {
+                    depth--;
+                }
+                register(object);
+                return object;
+            }
+        }
+
+        /**
+         * Return a lazily read stream of the objects in the input, read with {@link #readTypeAndObject(DataInput)}
+         * until the input ends. An input that ends in the middle of an object fails the stream with an
+         * {@link UncheckedIOException}.
+         */
+        public Stream<Object> stream(DataInput in) {
+            return StreamSupport.stream(new ObjectSpliterator<>(in, null), false);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <A> Stream<A> stream(DataInput in, Class<? super A> type) {
+            return stream(in, (Serializer<A>) serializerFor(type));
+        }
+
+        /**
+         * Return a lazily read stream of the objects in the input, read with
+         * {@link #readObject(DataInput, Serializer)} until the input ends.
+         */
+        public <A> Stream<A> stream(DataInput in, Serializer<A> serializer) {
+            return StreamSupport.stream(new ObjectSpliterator<>(in, serializer), false);
+        }
+
+        /**
+         * Check an array or collection length read from the input against the limits of this reader and charge
+         * length * elementSize bytes to its allocation budget. Serializers call this before allocating for the elements.
+         */
+        public void checkLength(int length, int elementSize) throws StreamCorruptedException {
+            if (length < 0 || length > maxLength) {
+                throw new StreamCorruptedException("Length " + length + " exceeds the limit " + maxLength + ".");
+            }
+            allocate((long) length * elementSize);
+        }
+
+        /**
+         * Check a UTF-8 string length read from the input against the limits of this reader and charge it to its
+         * allocation budget.
+         */
+        public void checkStringBytes(int byteLength) throws StreamCorruptedException {
+            if (byteLength < 0 || byteLength > maxStringBytes) {
+                throw new StreamCorruptedException("String of " + byteLength + " bytes exceeds the limit " + maxStringBytes + ".");
+            }
+            allocate(byteLength);
+        }
+
+        /**
+         * Charge the given number of bytes to the allocation budget of this reader.
+         */
+        public void allocate(long bytes) throws StreamCorruptedException {
+            if (bytes > allocationBudget) {
+                throw new StreamCorruptedException("Allocating " + bytes + " bytes exceeds the remaining budget " + allocationBudget + ".");
+            }
+            allocationBudget -= bytes;
+        }
+
+        Stasis stasis() {
+            return Stasis.this;
+        }
+
+        /**
+         * Reserve references for objects that were skipped, so that the references after them stay correct.
+         */
+        void registerSkippedObjects(int count) {
+            for (int i = 0; i < count; i++) {
+                register(SKIPPED);
+            }
+        }
+
         @SuppressWarnings("unchecked")
         private <A> A readFromRef(int header) {
             int ref = readRef(header);
-            return (A) refs.objectFor(ref);
+            Object object = refs.objectFor(ref);
+            if (object == SKIPPED) {
+                throw new IllegalStateException("Reference " + ref + " points to a skipped object.");
+            }
+            if (metrics != null) {
+                metrics.referenceRead();
+            }
+            references++;
+            return (A) object;
         }
 
         private <A> A read(DataInput in, Serializer<A> serializer) throws IOException {
+            enter();
+            try {
+                if (metrics != null || recording != null) {
+                    return readMeasuredObject(in, serializer);
+                }
+                A object = serializer.read(this, in);
+                register(object);
+                return object;
+            } finally {
+                depth--;
+            }
+        }
+
+        private void enter() throws StreamCorruptedException {
+            if (depth >= maxDepth) {
+                throw new StreamCorruptedException("Objects nested deeper than the limit " + maxDepth + ".");
+            }
+            depth++;
+        }
+
+        private <A> A readMeasuredObject(DataInput in, Serializer<A> serializer) throws IOException {
+            long start = -1;
+            if (latencySampleInterval > 0 && ++unsampledObjects == latencySampleInterval) {
+                unsampledObjects = 0;
+                start = System.nanoTime();
+            }
+            Object event = recording == null ? null : recording.beginObject();
+            long position = positionOf(in);
             A object = serializer.read(this, in);
-            refs.registerObject(object);
+            register(object);
+            long nanos = start < 0 ? -1 : System.nanoTime() - start;
+            long length = position < 0 ? -1 : positionOf(in) - position;
+            objects++;
+            if (depth == 1) {
+                bytes = bytes < 0 || length < 0 ? -1 : bytes + length;
+            }
+            Class<?> type = object == null ? Void.class : object.getClass();
+            if (metrics != null) {
+                metrics.objectRead(type, length, nanos);
+            }
+            if (recording != null) {
+                recording.endObject(event, false, type, length);
+            }
             return object;
         }
+
+        private void register(Object object) {
+            refs.registerObject(object);
+            registeredObjects++;
+        }
+
+        private class ObjectSpliterator<A> extends AbstractSpliterator<A> {
+
+            private final DataInput in;
+            private final Serializer<A> serializer;
+
+            public ObjectSpliterator(DataInput in, Serializer<A> serializer) {
+                super(Long.MAX_VALUE, Spliterator.ORDERED);
+                this.in = in;
+                this.serializer = serializer;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public boolean tryAdvance(Consumer<? super A> action) {
+                try {
+                    int firstByte;
+                    try {
+                        firstByte = in.readUnsignedByte();
+                    } catch (EOFException e) {
+                        return false;
+                    }
+                    int header = Varint.readUnsignedVarInt(firstByte, in);
+                    action.accept(serializer == null ? (A) readTypeAndObject(header, in) : readObject(header, in, serializer));
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+        }
     }
 
     private SerializerEntry serializerEntryFor(Class<?> type) {
@@ -261,6 +957,65 @@ public class Stasis {
         }
     }
 
+    private int inlineCodeFor(Object object) {
+        if (object == null) {
+            return usesSerializer(Void.class, Serializers.forNull()) ? INLINE_NULL : NO_INLINE;
+        }
+        Class<?> type = object.getClass();
+        if (type == Integer.class) {
+            int value = (Integer) object;
+            if (value >= INLINE_INT_MIN && value <= INLINE_INT_MAX
+                && (usesSerializer(Integer.class, Serializers.forVarInt()) || usesSerializer(Integer.class, Serializers.forInt()))) {
+                return INLINE_INT + value - INLINE_INT_MIN;
+            }
+        } else if (type == Boolean.class) {
+            if (usesSerializer(Boolean.class, Serializers.forBoolean())) {
+                return (Boolean) object ? INLINE_TRUE : INLINE_FALSE;
+            }
+        } else if (type == String.class) {
+            if (((String) object).isEmpty() && usesSerializer(String.class, Serializers.forString())) {
+                return INLINE_EMPTY_STRING;
+            }
+        }
+        return NO_INLINE;
+    }
+
+    private static long positionOf(DataOutput out) {
+        if (out instanceof ByteArrayDataOutput) {
+            return ((ByteArrayDataOutput) out).size();
+        } else if (out instanceof DataOutputStream) {
+            return ((DataOutputStream) out).size();
+        }
+        return -1;
+    }
+
+    private static long positionOf(DataInput in) {
+        if (in instanceof ByteBufferDataInput) {
+            return ((ByteBufferDataInput) in).buffer().position();
+        }
+        return -1;
+    }
+
+    private boolean usesSerializer(Class<?> type, Serializer<?> serializer) {
+        SerializerEntry entry = typeToSerializer.get(type);
+        return entry != null && entry.serializer == serializer;
+    }
+
+    private Object inlineValueFor(int code) {
+        switch (code) {
+        case INLINE_NULL:
+            return null;
+        case INLINE_FALSE:
+            return Boolean.FALSE;
+        case INLINE_TRUE:
+            return Boolean.TRUE;
+        case INLINE_EMPTY_STRING:
+            return "";
+        default:
+            return code - INLINE_INT + INLINE_INT_MIN;
+        }
+    }
+
     private Serializer<?> serializerFor(int serializerIndex) {
         if (serializerIndex >= serializers.size()) {
             throw new IllegalStateException("Serializer for index " + serializerIndex + " not found.");
@@ -272,6 +1027,13 @@ public class Stasis {
         return ref < 0;
     }
 
+    /**
+     * Header of an object written with a given serializer, which is a single byte.
+     */
+    static int typedObjectHeader(boolean compactHeaders) {
+        return compactHeaders ? OBJECT + INLINE_CODES : OBJECT;
+    }
+
     private int toHeader(int data, int headerType) {
         return (data << 1) | headerType;
     }
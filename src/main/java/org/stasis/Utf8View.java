@@ -0,0 +1,68 @@
+package org.stasis;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Character sequence over UTF-8 encoded bytes. The string is decoded only when characters are accessed, so views
+ * read with {@link Serializers#forUtf8View()} can be forwarded as their original bytes.
+ */
+public final class Utf8View implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final int length;
+    private String string;
+
+    Utf8View(ByteBuffer bytes, int length) {
+        this.bytes = bytes;
+        this.length = length;
+    }
+
+    public static Utf8View of(String string) {
+        Utf8View view = new Utf8View(ByteBuffer.wrap(string.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(),
+                                     string.length());
+        view.string = string;
+        return view;
+    }
+
+    /**
+     * Return the encoded bytes as a read-only buffer.
+     */
+    public ByteBuffer bytes() {
+        return bytes.duplicate();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (string == null) {
+            string = StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+        }
+        return string;
+    }
+
+    @Override
+    public int hashCode() {
+        return bytes.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Utf8View && bytes.equals(((Utf8View) obj).bytes);
+    }
+
+}
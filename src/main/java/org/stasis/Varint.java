@@ -99,6 +99,58 @@ public final class Varint {
         out.writeByte(value & 0x7F);
     }
 
+    /**
+     * Encodes a value like {@link #writeUnsignedVarInt(int, DataOutput)} into the array at the given offset.
+     * 
+     * @return offset after the encoded value
+     */
+    public static int writeUnsignedVarInt(int value, byte[] array, int offset) {
+        while ((value & 0xFFFFFF80) != 0L) {
+            array[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        array[offset++] = (byte) (value & 0x7F);
+        return offset;
+    }
+
+    /**
+     * @return number of bytes {@link #writeUnsignedVarInt(int, DataOutput)} writes for the value
+     */
+    public static int unsignedVarIntSize(int value) {
+        int size = 1;
+        while ((value & 0xFFFFFF80) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    /**
+     * @return number of bytes {@link #writeSignedVarInt(int, DataOutput)} writes for the value
+     */
+    public static int signedVarIntSize(int value) {
+        return unsignedVarIntSize((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * @return number of bytes {@link #writeUnsignedVarLong(long, DataOutput)} writes for the value
+     */
+    public static int unsignedVarLongSize(long value) {
+        int size = 1;
+        while ((value & 0xFFFFFFFFFFFFFF80L) != 0L) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    /**
+     * @return number of bytes {@link #writeSignedVarLong(long, DataOutput)} writes for the value
+     */
+    public static int signedVarLongSize(long value) {
+        return unsignedVarLongSize((value << 1) ^ (value >> 63));
+    }
+
     /**
      * @param in
      *            to read bytes from
@@ -183,4 +235,24 @@ public final class Varint {
         return value | (b << i);
     }
 
+    /**
+     * Decodes a value like {@link #readUnsignedVarInt(DataInput)} whose first byte has already been read.
+     * 
+     * @see #readUnsignedVarInt(DataInput)
+     */
+    public static int readUnsignedVarInt(int firstByte, DataInput in) throws IOException {
+        int value = firstByte & 0x7F;
+        int i = 7;
+        int b = firstByte;
+        while ((b & 0x80) != 0) {
+            b = in.readByte();
+            value |= (b & 0x7F) << i;
+            i += 7;
+            if (i > 35) {
+                throw new IllegalArgumentException("Variable length quantity is too long (must be <= 35)");
+            }
+        }
+        return value;
+    }
+
 }
@@ -0,0 +1,30 @@
+package org.stasis.compress;
+
+import java.io.IOException;
+
+/**
+ * Compression algorithm for the blocks of {@link CompressingOutputStream}.
+ */
+public interface BlockCodec {
+
+    /**
+     * Identifier of this codec in the block headers. Identifiers 1-127 are free for codecs, 0 is reserved for stored
+     * blocks.
+     */
+    int id();
+
+    /**
+     * Compress the source range into the destination range.
+     * 
+     * @return compressed length or -1 if the compressed data does not fit in dstLen bytes.
+     */
+    int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen);
+
+    /**
+     * Decompress the source range, which decompresses to exactly dstLen bytes, into the destination.
+     * 
+     * @throws IOException
+     *             if the compressed data is corrupt.
+     */
+    void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException;
+}
@@ -0,0 +1,99 @@
+package org.stasis.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.stasis.Varint;
+
+/**
+ * <p>
+ * Output stream which compresses the bytes written to it in blocks. Each block is compressed with every given codec
+ * and the smallest result is written, or the block is stored as is if no codec makes it smaller. A block is the
+ * codec id as a byte, the original and stored lengths as varints and the stored bytes. Blocks are read with
+ * {@link DecompressingInputStream}.
+ * </p>
+ * 
+ * <p>
+ * A block is written when blockSize bytes have been buffered and on {@link #flush()}.
+ * </p>
+ */
+public class CompressingOutputStream extends OutputStream {
+
+    static final int STORED = 0;
+
+    private final OutputStream out;
+    private final BlockCodec[] codecs;
+    private final byte[] block;
+    private final byte[] compressed;
+    private final byte[] candidate;
+    private final byte[] header = new byte[11];
+    private int size = 0;
+
+    public CompressingOutputStream(OutputStream out, int blockSize, BlockCodec... codecs) {
+        this.out = out;
+        this.codecs = codecs;
+        this.block = new byte[blockSize];
+        this.compressed = new byte[blockSize];
+        this.candidate = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (size == block.length) {
+            writeBlock();
+        }
+        block[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (size == block.length) {
+                writeBlock();
+            }
+            int length = Math.min(len, block.length - size);
+            System.arraycopy(b, off, block, size, length);
+            size += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        int codecId = STORED;
+        int storedLength = size;
+        for (BlockCodec codec : codecs) {
+            int length = codec.compress(block, 0, size, candidate, 0, storedLength - 1);
+            if (length >= 0 && length < storedLength) {
+                System.arraycopy(candidate, 0, compressed, 0, length);
+                codecId = codec.id();
+                storedLength = length;
+            }
+        }
+
+        header[0] = (byte) codecId;
+        int headerLength = Varint.writeUnsignedVarInt(storedLength, header, Varint.writeUnsignedVarInt(size, header, 1));
+        out.write(header, 0, headerLength);
+        out.write(codecId == STORED ? block : compressed, 0, storedLength);
+        size = 0;
+    }
+
+}
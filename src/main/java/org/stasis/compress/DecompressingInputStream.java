@@ -0,0 +1,138 @@
+package org.stasis.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * Input stream which reads the blocks written by {@link CompressingOutputStream}. The codecs used for writing must be
+ * given. Blocks longer than the maximum block size, by default {@value #DEFAULT_MAX_BLOCK_SIZE} bytes, are rejected
+ * before anything is allocated for them.
+ */
+public class DecompressingInputStream extends InputStream {
+
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 1 << 24;
+
+    private final InputStream in;
+    private final int maxBlockSize;
+    private final BlockCodec[] codecs = new BlockCodec[128];
+    private byte[] block = new byte[0];
+    private byte[] compressed = new byte[0];
+    private int position = 0;
+    private int size = 0;
+
+    public DecompressingInputStream(InputStream in, BlockCodec... codecs) {
+        this(in, DEFAULT_MAX_BLOCK_SIZE, codecs);
+    }
+
+    /**
+     * @param maxBlockSize
+     *            the largest block size the stream was written with
+     */
+    public DecompressingInputStream(InputStream in, int maxBlockSize, BlockCodec... codecs) {
+        this.in = in;
+        this.maxBlockSize = maxBlockSize;
+        for (BlockCodec codec : codecs) {
+            this.codecs[codec.id()] = codec;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == size && !readBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == size && !readBlock()) {
+            return -1;
+        }
+        int length = Math.min(len, size - position);
+        System.arraycopy(block, position, b, off, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return size - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readBlock() throws IOException {
+        int codecId = in.read();
+        if (codecId < 0) {
+            return false;
+        }
+        int length = readUnsignedVarInt();
+        int storedLength = readUnsignedVarInt();
+        if (length < 0 || length > maxBlockSize || storedLength < 0 || storedLength > maxBlockSize) {
+            throw new StreamCorruptedException("Block of " + length + " bytes stored in " + storedLength
+                                               + " bytes exceeds the maximum block size " + maxBlockSize + ".");
+        }
+        if (length == 0) {
+            // The writer never writes empty blocks, reading one would return stale bytes.
+            throw new StreamCorruptedException("Empty block.");
+        }
+        if (block.length < length) {
+            block = new byte[length];
+        }
+        if (codecId == CompressingOutputStream.STORED) {
+            if (storedLength != length) {
+                throw new StreamCorruptedException("Stored block length " + storedLength + " differs from " + length + ".");
+            }
+            readFully(block, storedLength);
+        } else {
+            BlockCodec codec = codecId < codecs.length ? codecs[codecId] : null;
+            if (codec == null) {
+                throw new StreamCorruptedException("Codec " + codecId + " not found.");
+            }
+            if (compressed.length < storedLength) {
+                compressed = new byte[storedLength];
+            }
+            readFully(compressed, storedLength);
+            codec.decompress(compressed, 0, storedLength, block, 0, length);
+        }
+        position = 0;
+        size = length;
+        return true;
+    }
+
+    private int readUnsignedVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift <= 28; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Block length is too long.");
+    }
+
+    private void readFully(byte[] b, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int count = in.read(b, read, length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.stasis.compress;
+
+import java.io.StreamCorruptedException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec using raw {@link Deflater} streams, for better compression ratio than {@link LzBlockCodec} at a higher CPU
+ * cost. The native deflater and inflater are created once per codec and reset for each block, so calls on one codec
+ * are serialized.
+ */
+public class DeflateBlockCodec implements BlockCodec {
+
+    public static final int ID = 2;
+
+    private final int level;
+    private Deflater deflater;
+    private Inflater inflater;
+
+    public DeflateBlockCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    public DeflateBlockCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public int id() {
+        return ID;
+    }
+
+    @Override
+    public synchronized int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            deflater.setInput(src, srcOff, srcLen);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == dstLen) {
+                    return -1;
+                }
+                length += deflater.deflate(dst, dstOff + length, dstLen - length);
+            }
+            return length;
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public synchronized void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen)
+        throws StreamCorruptedException {
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(src, srcOff, srcLen);
+            int length = 0;
+            while (length < dstLen) {
+                int inflated = inflater.inflate(dst, dstOff + length, dstLen - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != dstLen) {
+                throw new StreamCorruptedException("Compressed block is corrupt.");
+            }
+        } catch (DataFormatException e) {
+            StreamCorruptedException corrupted = new StreamCorruptedException("Compressed block is corrupt.");
+            corrupted.initCause(e);
+            throw corrupted;
+        } finally {
+            inflater.reset();
+        }
+    }
+
+}
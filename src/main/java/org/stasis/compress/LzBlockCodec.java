@@ -0,0 +1,167 @@
+package org.stasis.compress;
+
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Fast LZ77 codec with the sequence layout of LZ4 blocks. Each sequence is a token whose high nibble is the literal
+ * length and low nibble the match length minus 4, extra length bytes for nibbles of 15, the literals and the match
+ * offset as a little-endian short. The last sequence has only literals.
+ * </p>
+ * 
+ * <p>
+ * Matches are found greedily with a hash table of 4-byte sequences, trading compression ratio for speed. The table is
+ * reused by all blocks compressed with the codec, so compression is synchronized like that of
+ * {@link DeflateBlockCodec}.
+ * </p>
+ */
+public class LzBlockCodec implements BlockCodec {
+
+    public static final int ID = 1;
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int HASH_BITS = 14;
+    private static final int RUN_MASK = 15;
+
+    private final int[] table = new int[1 << HASH_BITS]; // position + 1 of the last sequence with the hash
+
+    @Override
+    public int id() {
+        return ID;
+    }
+
+    @Override
+    public synchronized int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        Arrays.fill(table, 0);
+        int end = srcOff + srcLen;
+        int dstEnd = dstOff + dstLen;
+        int anchor = srcOff;
+        int i = srcOff;
+        int out = dstOff;
+        while (i <= end - MIN_MATCH) {
+            int sequence = readInt(src, i);
+            int hash = (sequence * 0x9E3779B1) >>> (32 - HASH_BITS);
+            int candidate = table[hash] - 1;
+            table[hash] = i + 1;
+            if (candidate >= srcOff && i - candidate <= MAX_OFFSET && readInt(src, candidate) == sequence) {
+                int matchLength = MIN_MATCH;
+                while (i + matchLength < end && src[candidate + matchLength] == src[i + matchLength]) {
+                    matchLength++;
+                }
+                out = writeSequence(src, anchor, i - anchor, i - candidate, matchLength, dst, out, dstEnd);
+                if (out < 0) {
+                    return -1;
+                }
+                i += matchLength;
+                anchor = i;
+            } else {
+                i++;
+            }
+        }
+        out = writeSequence(src, anchor, end - anchor, 0, 0, dst, out, dstEnd);
+        return out < 0 ? -1 : out - dstOff;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen)
+        throws StreamCorruptedException {
+        int in = srcOff;
+        int end = srcOff + srcLen;
+        int out = dstOff;
+        int dstEnd = dstOff + dstLen;
+        while (in < end) {
+            int token = src[in++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    ensure(in < end);
+                    b = src[in++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            ensure(literalLength <= end - in && literalLength <= dstEnd - out);
+            System.arraycopy(src, in, dst, out, literalLength);
+            in += literalLength;
+            out += literalLength;
+            if (in == end) {
+                break; // last sequence
+            }
+
+            ensure(in + 2 <= end);
+            int offset = (src[in] & 0xFF) | ((src[in + 1] & 0xFF) << 8);
+            in += 2;
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    ensure(in < end);
+                    b = src[in++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            ensure(offset > 0 && offset <= out - dstOff && matchLength <= dstEnd - out);
+            int match = out - offset;
+            for (int i = 0; i < matchLength; i++) {
+                dst[out++] = dst[match++]; // byte by byte, the match can overlap the output
+            }
+        }
+        ensure(out == dstEnd);
+    }
+
+    private static int writeSequence(byte[] src, int literals, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int out, int dstEnd) {
+        // token, extra length bytes, literals and offset
+        if (out + 1 + literalLength / 255 + 1 + literalLength + 2 + (matchLength / 255 + 1) > dstEnd) {
+            return -1;
+        }
+        int tokenPosition = out++;
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            out = writeLength(literalLength - RUN_MASK, dst, out);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literals, dst, out, literalLength);
+        out += literalLength;
+
+        if (matchLength > 0) {
+            dst[out++] = (byte) offset;
+            dst[out++] = (byte) (offset >>> 8);
+            int length = matchLength - MIN_MATCH;
+            if (length >= RUN_MASK) {
+                token |= RUN_MASK;
+                out = writeLength(length - RUN_MASK, dst, out);
+            } else {
+                token |= length;
+            }
+        }
+        dst[tokenPosition] = (byte) token;
+        return out;
+    }
+
+    private static int writeLength(int length, byte[] dst, int out) {
+        while (length >= 255) {
+            dst[out++] = (byte) 255;
+            length -= 255;
+        }
+        dst[out++] = (byte) length;
+        return out;
+    }
+
+    private static int readInt(byte[] array, int i) {
+        return (array[i] & 0xFF) | ((array[i + 1] & 0xFF) << 8) | ((array[i + 2] & 0xFF) << 16) | (array[i + 3] << 24);
+    }
+
+    private static void ensure(boolean condition) throws StreamCorruptedException {
+        if (!condition) {
+            throw new StreamCorruptedException("Compressed block is corrupt.");
+        }
+    }
+
+}
@@ -0,0 +1,276 @@
+package org.stasis.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Stasis;
+import org.stasis.pool.DynamicObjectPool;
+import org.stasis.pool.ObjectFactory;
+import org.stasis.pool.ObjectPool;
+
+/**
+ * <p>
+ * Serializes messages on an executor so that I/O threads don't do the serialization themselves. Each message is
+ * written with a pooled {@link Stasis.Writer}, which is reset before each message, into a pooled buffer. The buffer is
+ * handed to the I/O stage as an {@link Encoded} message without copying, and returns to the pool when the I/O stage
+ * releases it.
+ * </p>
+ * 
+ * <p>
+ * The futures returned by {@link #write(Object)} are completed in submission order by a single thread at a time, so
+ * callbacks the I/O stage chains on them receive the encoded messages in order. At most maxInFlight messages are
+ * pending or encoded and not yet released at a time, after which {@link #write(Object)} blocks until the I/O stage
+ * releases a message.
+ * </p>
+ */
+public class AsyncWriter {
+
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final ObjectPool<ByteArrayDataOutput> buffers;
+    private final ObjectPool<Stasis.Writer> writers;
+    private final List<Stasis.Writer> createdWriters = new ArrayList<>();
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private boolean completing = false;
+
+    private static final class Pending {
+
+        private final CompletableFuture<Encoded> result = new CompletableFuture<>();
+        private boolean done = false;
+        private Encoded encoded;
+        private Throwable error;
+    }
+
+    /**
+     * Encoded message in a pooled buffer. The bytes are valid until {@link #release()} is called, which must be done
+     * once the I/O stage no longer needs them.
+     */
+    public final class Encoded {
+
+        private ByteArrayDataOutput buffer;
+
+        private Encoded(ByteArrayDataOutput buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Return the array holding the message in its first {@link #size()} bytes.
+         */
+        public byte[] array() {
+            return buffer().array();
+        }
+
+        public int size() {
+            return buffer().size();
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(array(), 0, size());
+        }
+
+        public byte[] toByteArray() {
+            return buffer().toByteArray();
+        }
+
+        /**
+         * Return the buffer to the pool and let the next message be written.
+         */
+        public void release() {
+            ByteArrayDataOutput released;
+            synchronized (this) {
+                released = buffer;
+                buffer = null;
+            }
+            if (released == null) {
+                throw new IllegalStateException("Message was already released.");
+            }
+            buffers.release(released);
+            inFlight.release();
+        }
+
+        private synchronized ByteArrayDataOutput buffer() {
+            if (buffer == null) {
+                throw new IllegalStateException("Message was released.");
+            }
+            return buffer;
+        }
+    }
+
+    public AsyncWriter(final Stasis stasis, Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.buffers = new DynamicObjectPool<>(maxInFlight, new ObjectFactory<ByteArrayDataOutput>() {
+
+            @Override
+            public ByteArrayDataOutput create() {
+                return new ByteArrayDataOutput();
+            }
+
+            @Override
+            public void onBorrow(ByteArrayDataOutput buffer) {
+                buffer.reset();
+            }
+
+            @Override
+            public void onRelease(ByteArrayDataOutput buffer) {
+            }
+
+        });
+        this.writers = new DynamicObjectPool<>(maxInFlight, new ObjectFactory<Stasis.Writer>() {
+
+            @Override
+            public Stasis.Writer create() {
+                Stasis.Writer writer = stasis.newWriter();
+                synchronized (createdWriters) {
+                    createdWriters.add(writer);
+                }
+                return writer;
+            }
+
+            @Override
+            public void onBorrow(Stasis.Writer writer) {
+                writer.reset();
+            }
+
+            @Override
+            public void onRelease(Stasis.Writer writer) {
+            }
+
+        });
+    }
+
+    /**
+     * Return an executor that runs each task on a new virtual thread when the runtime supports them (Java 21 and
+     * later) and the common fork-join pool otherwise.
+     */
+    public static Executor defaultExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+
+    /**
+     * Serialize the message asynchronously. Blocks while maxInFlight messages are pending.
+     * 
+     * @return future which completes with the encoded message after all previously submitted messages have completed,
+     *         or exceptionally if encoding fails or the executor rejects the task. The encoded message must be
+     *         released.
+     */
+    public CompletableFuture<Encoded> write(final Object message) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+
+        final Pending entry = new Pending();
+        synchronized (this) {
+            pending.add(entry);
+        }
+
+        try {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    Encoded encoded = null;
+                    Throwable error = null;
+                    try {
+                        encoded = encode(message);
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                    finish(entry, encoded, error);
+                }
+
+            });
+        } catch (RuntimeException e) {
+            // Rejected by the executor: fail this message in its turn so later messages and the permit are not held.
+            finish(entry, null, e);
+        }
+        return entry.result;
+    }
+
+    /**
+     * Close the pooled writers. Call it after all messages have completed.
+     */
+    public void close() {
+        synchronized (createdWriters) {
+            for (Stasis.Writer writer : createdWriters) {
+                writer.close();
+            }
+            createdWriters.clear();
+        }
+    }
+
+    private void finish(Pending entry, Encoded encoded, Throwable error) {
+        synchronized (this) {
+            entry.encoded = encoded;
+            entry.error = error;
+            entry.done = true;
+        }
+        completeInOrder();
+    }
+
+    private Encoded encode(Object message) throws IOException {
+        ByteArrayDataOutput buffer = buffers.borrow();
+        Stasis.Writer writer = writers.borrow();
+        try {
+            writer.writeTypeAndObject(message, buffer);
+            Encoded encoded = new Encoded(buffer);
+            buffer = null;
+            return encoded;
+        } finally {
+            writers.release(writer);
+            if (buffer != null) {
+                buffers.release(buffer);
+            }
+        }
+    }
+
+    private void completeInOrder() {
+        synchronized (this) {
+            if (completing) {
+                return;
+            }
+            completing = true;
+        }
+        while (true) {
+            Pending head;
+            synchronized (this) {
+                head = pending.peek();
+                if (head == null || !head.done) {
+                    completing = false;
+                    return;
+                }
+                pending.poll();
+            }
+            if (head.error == null) {
+                if (!head.result.complete(head.encoded)) {
+                    // Cancelled by the caller, who will never release the message.
+                    head.encoded.release();
+                }
+            } else {
+                // Failed messages hold no buffer, so their permit is released right away.
+                inFlight.release();
+                head.result.completeExceptionally(head.error);
+            }
+        }
+    }
+
+}
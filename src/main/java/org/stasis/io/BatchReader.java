@@ -0,0 +1,50 @@
+package org.stasis.io;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * Reads the messages of batches written by {@link BatchWriter} one at a time and in order. Batch readers are not
+ * thread-safe.
+ */
+public class BatchReader {
+
+    private final Stasis stasis;
+    private int remaining = 0;
+
+    public BatchReader(Stasis stasis) {
+        this.stasis = stasis;
+    }
+
+    /**
+     * Read the next message, reading the header of the next batch first if the current batch has been read.
+     * 
+     * @throws java.io.EOFException
+     *             if the input ends before the next batch.
+     */
+    public Object next(DataInput in) throws IOException {
+        while (remaining == 0) {
+            remaining = Varint.readUnsignedVarInt(in); // message count
+            Varint.readUnsignedVarInt(in); // byte length
+        }
+        Stasis.Reader reader = stasis.newReader();
+        try {
+            Object message = reader.readTypeAndObject(in);
+            remaining--;
+            return message;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Number of messages left in the current batch.
+     */
+    public int remainingInBatch() {
+        return remaining;
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.stasis.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * <p>
+ * Coalesces small messages into batches which are written to the output with one call. A batch is the message count
+ * and byte length as varints followed by the messages. Messages are written with one {@link Stasis.Writer} which is
+ * reset before each message, so messages share the registered types but have their own references. A message whose
+ * serialization fails is dropped from the batch. Batches are read with {@link BatchReader}.
+ * </p>
+ * 
+ * <p>
+ * The batch is flushed when it reaches maxBatchBytes, when maxDelay has passed since the first message of the batch,
+ * and on {@link #flush()}. Without a scheduler the delay is only checked when a message is written or
+ * {@link #flushIfDue()} is called. With a scheduler a flush is scheduled when the first message of a batch is written,
+ * and an error of that flush is thrown by the next call to this writer.
+ * </p>
+ */
+public class BatchWriter {
+
+    private static final int MAX_HEADER_LENGTH = 10;
+
+    private final DataOutput out;
+    private final int maxBatchBytes;
+    private final long maxDelayNanos;
+    private final ByteArrayDataOutput buffer = new ByteArrayDataOutput();
+    private final Stasis.Writer writer;
+    private final ScheduledExecutorService scheduler;
+
+    private int count = 0;
+    private long batchStart;
+    private ScheduledFuture<?> scheduledFlush;
+    private IOException scheduledFlushError;
+
+    public BatchWriter(Stasis stasis, DataOutput out, int maxBatchBytes, long maxDelay, TimeUnit unit) {
+        this(stasis, out, maxBatchBytes, maxDelay, unit, null);
+    }
+
+    /**
+     * Create a writer which flushes each batch on the given scheduler once maxDelay has passed since its first
+     * message, or only when it is written to if the scheduler is null.
+     */
+    public BatchWriter(Stasis stasis, DataOutput out, int maxBatchBytes, long maxDelay, TimeUnit unit,
+                       ScheduledExecutorService scheduler) {
+        this.out = out;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.writer = stasis.newWriter();
+        this.scheduler = scheduler;
+        buffer.skip(MAX_HEADER_LENGTH);
+    }
+
+    public synchronized void write(Object message) throws IOException {
+        throwScheduledFlushError();
+        int mark = buffer.size();
+        writer.reset();
+        try {
+            writer.writeTypeAndObject(message, buffer);
+        } catch (Throwable e) {
+            buffer.truncate(mark);
+            throw e;
+        }
+        if (count == 0) {
+            batchStart = System.nanoTime();
+            if (scheduler != null) {
+                scheduledFlush = scheduler.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        scheduledFlush();
+                    }
+
+                }, maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        count++;
+        if (buffer.size() - MAX_HEADER_LENGTH >= maxBatchBytes) {
+            flush();
+        } else {
+            flushIfDue();
+        }
+    }
+
+    /**
+     * Flush the batch if maxDelay has passed since its first message.
+     */
+    public synchronized void flushIfDue() throws IOException {
+        throwScheduledFlushError();
+        if (count > 0 && System.nanoTime() - batchStart >= maxDelayNanos) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        throwScheduledFlushError();
+        if (count == 0) {
+            return;
+        }
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        byte[] array = buffer.array();
+        int length = buffer.size() - MAX_HEADER_LENGTH;
+        int start = MAX_HEADER_LENGTH - Varint.unsignedVarIntSize(count) - Varint.unsignedVarIntSize(length);
+        Varint.writeUnsignedVarInt(length, array, Varint.writeUnsignedVarInt(count, array, start));
+        out.write(array, start, buffer.size() - start);
+
+        buffer.reset();
+        buffer.skip(MAX_HEADER_LENGTH);
+        count = 0;
+    }
+
+    private synchronized void scheduledFlush() {
+        // A flush of this batch may have happened in between, then the next batch is not due yet.
+        if (scheduledFlushError == null) {
+            try {
+                flushIfDue();
+            } catch (IOException e) {
+                scheduledFlushError = e;
+            }
+        }
+    }
+
+    private void throwScheduledFlushError() throws IOException {
+        if (scheduledFlushError != null) {
+            IOException error = scheduledFlushError;
+            scheduledFlushError = null;
+            throw error;
+        }
+    }
+
+    /**
+     * Flush the batch and release the writer.
+     */
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+}
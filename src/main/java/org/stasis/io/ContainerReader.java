@@ -0,0 +1,241 @@
+package org.stasis.io;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * Reads containers written by {@link ContainerWriter} from a buffer, for example a memory-mapped file. Blocks can be
+ * decoded in parallel and records can be read by their position without decoding the preceding blocks. Container
+ * readers are thread-safe.
+ */
+public class ContainerReader {
+
+    private final Stasis stasis;
+    private final ByteBuffer container;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final long[] firstRecords; // index of the first record of each block, plus the total record count
+
+    public ContainerReader(Stasis stasis, ByteBuffer container) throws IOException {
+        this.stasis = stasis;
+        this.container = container.slice();
+
+        int size = this.container.limit();
+        if (size < ContainerWriter.HEADER_LENGTH + ContainerWriter.TRAILER_LENGTH
+            || this.container.getInt(0) != ContainerWriter.MAGIC
+            || this.container.getInt(size - 4) != ContainerWriter.MAGIC) {
+            throw new StreamCorruptedException("Not a container.");
+        }
+        if (this.container.get(4) != ContainerWriter.VERSION) {
+            throw new StreamCorruptedException("Unsupported container version " + this.container.get(4) + ".");
+        }
+
+        ByteBuffer indexBuffer = this.container.duplicate();
+        indexBuffer.position((int) this.container.getLong(size - ContainerWriter.TRAILER_LENGTH));
+        indexBuffer.limit(size - ContainerWriter.TRAILER_LENGTH);
+        ByteBufferDataInput index = new ByteBufferDataInput(indexBuffer);
+        int blocks = Varint.readUnsignedVarInt(index);
+        offsets = new int[blocks];
+        lengths = new int[blocks];
+        firstRecords = new long[blocks + 1];
+        for (int i = 0; i < blocks; i++) {
+            offsets[i] = (int) Varint.readUnsignedVarLong(index);
+            lengths[i] = Varint.readUnsignedVarInt(index);
+            firstRecords[i + 1] = firstRecords[i] + Varint.readUnsignedVarInt(index);
+        }
+    }
+
+    public int blockCount() {
+        return offsets.length;
+    }
+
+    public long recordCount() {
+        return firstRecords[offsets.length];
+    }
+
+    /**
+     * Index of the first record in the given block.
+     */
+    public long firstRecordOf(int block) {
+        return firstRecords[block];
+    }
+
+    public List<Object> readBlock(int block) throws IOException {
+        int records = (int) (firstRecords[block + 1] - firstRecords[block]);
+        List<Object> result = new ArrayList<>(records);
+        ByteBufferDataInput in = blockInput(block);
+        Stasis.Reader reader = stasis.newReader();
+        try {
+            for (int i = 0; i < records; i++) {
+                result.add(reader.readTypeAndObject(in));
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    /**
+     * Read the record at the given position, decoding only the records before it in the same block. The records before
+     * it are decoded rather than skipped because the record can refer back to objects nested in them.
+     */
+    public Object get(long record) throws IOException {
+        if (record < 0 || record >= recordCount()) {
+            throw new IndexOutOfBoundsException("Record " + record + " is outside of 0.." + recordCount() + ".");
+        }
+        int search = Arrays.binarySearch(firstRecords, record);
+        int block = search >= 0 ? search : -search - 2;
+        ByteBufferDataInput in = blockInput(block);
+        Stasis.Reader reader = stasis.newReader();
+        try {
+            for (long i = firstRecords[block]; i < record; i++) {
+                reader.readTypeAndObject(in);
+            }
+            return reader.readTypeAndObject(in);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Read all records, decoding the blocks in parallel on the given pool.
+     */
+    public List<Object> readAll(ForkJoinPool pool) throws IOException {
+        final List<BlockTask> tasks = new ArrayList<>(blockCount());
+        for (int i = 0; i < blockCount(); i++) {
+            tasks.add(new BlockTask(i));
+        }
+        pool.invoke(new RecursiveAction() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+
+        });
+        List<Object> result = new ArrayList<>((int) recordCount());
+        for (BlockTask task : tasks) {
+            if (task.error != null) {
+                throw task.error;
+            }
+            result.addAll(task.records);
+        }
+        return result;
+    }
+
+    /**
+     * Return a lazily read stream of all records. The stream splits at block boundaries, so parallel streams decode
+     * blocks on several threads.
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(new BlockSpliterator(0, blockCount()), false);
+    }
+
+    ByteBufferDataInput blockInput(int block) {
+        ByteBuffer buffer = container.duplicate();
+        buffer.limit(offsets[block] + lengths[block]);
+        buffer.position(offsets[block]);
+        return new ByteBufferDataInput(buffer);
+    }
+
+    private class BlockSpliterator implements Spliterator<Object> {
+
+        private int block;
+        private final int end;
+        private ByteBufferDataInput in;
+        private Stasis.Reader reader;
+        private int remaining = 0;
+
+        public BlockSpliterator(int block, int end) {
+            this.block = block;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if (remaining == 0) {
+                if (block >= end) {
+                    return false;
+                }
+                in = blockInput(block);
+                reader = stasis.newReader();
+                remaining = (int) (firstRecords[block + 1] - firstRecords[block]);
+                block++;
+            }
+            try {
+                Object record = reader.readTypeAndObject(in);
+                if (--remaining == 0) {
+                    reader.close();
+                    reader = null;
+                }
+                action.accept(record);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            int middle = (block + end) >>> 1;
+            if (remaining > 0 || middle <= block) {
+                return null;
+            }
+            Spliterator<Object> prefix = new BlockSpliterator(block, middle);
+            block = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return firstRecords[end] - firstRecords[block] + remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+    }
+
+    private class BlockTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int block;
+        private List<Object> records;
+        private IOException error;
+
+        public BlockTask(int block) {
+            this.block = block;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                records = readBlock(block);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.stasis.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * <p>
+ * Writes records into a container made of independently decodable blocks, so that the container can be read in
+ * parallel or at random with {@link ContainerReader}. The container layout is:
+ * </p>
+ * <ul>
+ * <li>header: the magic bytes and the format version</li>
+ * <li>blocks: records written with a new {@link Stasis.Writer} per block, so references are shared only within a
+ * block and the registered types are shared by all blocks</li>
+ * <li>index: the block count and, for each block, its offset, byte length and record count as varints</li>
+ * <li>trailer: the offset of the index as a long and the magic bytes</li>
+ * </ul>
+ * <p>
+ * A block ends when it reaches blockBytes. Container writers are not thread-safe.
+ * </p>
+ */
+public class ContainerWriter {
+
+    static final int MAGIC = 0x53545343; // "STSC"
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 5;
+    static final int TRAILER_LENGTH = 12;
+
+    private final Stasis stasis;
+    private final DataOutput out;
+    private final int blockBytes;
+
+    private final ByteArrayDataOutput block = new ByteArrayDataOutput();
+    private final ByteArrayDataOutput index = new ByteArrayDataOutput();
+    private Stasis.Writer writer;
+    private int blockRecords = 0;
+    private int blocks = 0;
+    private long position;
+    private boolean finished = false;
+
+    public ContainerWriter(Stasis stasis, DataOutput out, int blockBytes) throws IOException {
+        this.stasis = stasis;
+        this.out = out;
+        this.blockBytes = blockBytes;
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        position = HEADER_LENGTH;
+    }
+
+    public void append(Object record) throws IOException {
+        ensureIsNotFinished();
+        if (writer == null) {
+            writer = stasis.newWriter();
+        }
+        writer.writeTypeAndObject(record, block);
+        blockRecords++;
+        if (block.size() >= blockBytes) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Write the last block, the index and the trailer. The underlying output is not closed.
+     */
+    public void finish() throws IOException {
+        ensureIsNotFinished();
+        flushBlock();
+        Varint.writeUnsignedVarInt(blocks, out);
+        out.write(index.array(), 0, index.size());
+        out.writeLong(position);
+        out.writeInt(MAGIC);
+        finished = true;
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) {
+            return;
+        }
+        writer.close();
+        writer = null;
+
+        Varint.writeUnsignedVarLong(position, index);
+        Varint.writeUnsignedVarInt(block.size(), index);
+        Varint.writeUnsignedVarInt(blockRecords, index);
+        out.write(block.array(), 0, block.size());
+        position += block.size();
+        blocks++;
+
+        block.reset();
+        blockRecords = 0;
+    }
+
+    private void ensureIsNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Container is finished.");
+        }
+    }
+
+}
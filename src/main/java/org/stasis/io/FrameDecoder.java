@@ -0,0 +1,133 @@
+package org.stasis.io;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.stasis.Stasis;
+
+/**
+ * <p>
+ * Incremental decoder for frames written by {@link FrameWriter}, for non-blocking I/O where a frame can arrive in
+ * pieces. Chunks are appended with {@link #feed(ByteBuffer)} as they arrive, {@link #hasFrame()} tells whether a
+ * complete frame is buffered and {@link #nextFrame()} decodes it.
+ * </p>
+ * 
+ * <p>
+ * Only the length prefix is parsed before the frame is complete, and it is parsed once. Frame decoders are not
+ * thread-safe.
+ * </p>
+ */
+public class FrameDecoder {
+
+    private static final int NO_FRAME = -1;
+    private static final int MAX_BUFFER = Integer.MAX_VALUE - 8;
+
+    private final FrameReader frameReader;
+    private final int trailerLength;
+
+    private byte[] buffer = new byte[256];
+    private int start = 0;
+    private int end = 0;
+
+    private int prefixLength;
+    private int payloadLength = NO_FRAME;
+
+    public FrameDecoder(Stasis stasis, boolean checksums) {
+        this.frameReader = new FrameReader(stasis, checksums);
+        this.trailerLength = checksums ? 4 : 0;
+    }
+
+    /**
+     * Set the longest payload accepted, see {@link FrameReader#setMaxFrameLength(int)}.
+     */
+    public FrameDecoder setMaxFrameLength(int maxFrameLength) {
+        frameReader.setMaxFrameLength(maxFrameLength);
+        return this;
+    }
+
+    /**
+     * Append the remaining bytes of the chunk to this decoder.
+     */
+    public void feed(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        if (end + length > buffer.length) {
+            int buffered = end - start;
+            if (buffered + length > buffer.length) {
+                long grown = Math.min(2L * buffer.length, MAX_BUFFER);
+                byte[] newBuffer = new byte[(int) Math.max(buffered + length, grown)];
+                System.arraycopy(buffer, start, newBuffer, 0, buffered);
+                buffer = newBuffer;
+            } else {
+                System.arraycopy(buffer, start, buffer, 0, buffered);
+            }
+            start = 0;
+            end = buffered;
+        }
+        chunk.get(buffer, end, length);
+        end += length;
+    }
+
+    /**
+     * Return true if a complete frame is buffered.
+     * 
+     * @throws StreamCorruptedException
+     *             if the length prefix is malformed or the frame is longer than the limit.
+     */
+    public boolean hasFrame() throws StreamCorruptedException {
+        if (payloadLength == NO_FRAME && !readLengthPrefix()) {
+            return false;
+        }
+        return end - start >= prefixLength + payloadLength + trailerLength;
+    }
+
+    /**
+     * Decode the next complete frame.
+     * 
+     * @throws NoSuchElementException
+     *             if no complete frame is buffered.
+     */
+    public Object nextFrame() throws IOException {
+        if (!hasFrame()) {
+            throw new NoSuchElementException("No complete frame buffered.");
+        }
+        int payloadStart = start + prefixLength;
+        int payloadEnd = payloadStart + payloadLength;
+        byte[] payload = Arrays.copyOfRange(buffer, payloadStart, payloadEnd);
+        int checksum = trailerLength > 0 ? readInt(payloadEnd) : 0;
+
+        start = payloadEnd + trailerLength;
+        payloadLength = NO_FRAME;
+        if (start == end) {
+            start = 0;
+            end = 0;
+        }
+        frameReader.verify(payload, checksum);
+        return frameReader.decode(payload);
+    }
+
+    private boolean readLengthPrefix() throws StreamCorruptedException {
+        int value = 0;
+        for (int i = 0; start + i < end; i++) {
+            int b = buffer[start + i];
+            value |= (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                frameReader.checkFrameLength(value);
+                prefixLength = i + 1;
+                payloadLength = value;
+                return true;
+            } else if (i + 1 == FrameWriter.MAX_LENGTH_PREFIX) {
+                throw new StreamCorruptedException("Frame length prefix is too long.");
+            }
+        }
+        return false;
+    }
+
+    private int readInt(int offset) {
+        return (buffer[offset] << 24) | ((buffer[offset + 1] & 0xFF) << 16) | ((buffer[offset + 2] & 0xFF) << 8)
+               | (buffer[offset + 3] & 0xFF);
+    }
+
+}
@@ -0,0 +1,220 @@
+package org.stasis.io;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.Checksum;
+
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * Reads frames written by {@link FrameWriter}. Each payload is read into its own array, so zero-copy values read from
+ * a frame stay valid after the next frame is read. Frame readers are not thread-safe.
+ */
+public class FrameReader {
+
+    private static final int BATCH_INCREMENT = 1024;
+    private static final int MAX_BATCH = 1 << 20;
+    private static final int DEFAULT_MAX_FRAME_LENGTH = 64 << 20;
+
+    private final Stasis stasis;
+    private final Checksum checksum;
+    private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+
+    public FrameReader(Stasis stasis, boolean checksums) {
+        this.stasis = stasis;
+        this.checksum = checksums ? Crc32c.create() : null;
+    }
+
+    /**
+     * Set the longest payload accepted, 64 MiB by default. The payload of a frame is allocated at once, so the limit
+     * keeps a corrupt length prefix from allocating up to 2 GiB.
+     */
+    public FrameReader setMaxFrameLength(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+        return this;
+    }
+
+    /**
+     * @throws StreamCorruptedException
+     *             if the frame is longer than the limit, the checksum does not match or the payload is not fully
+     *             consumed.
+     */
+    public Object readFrame(DataInput in) throws IOException {
+        return decode(readPayload(Varint.readUnsignedVarInt(in), in));
+    }
+
+    /**
+     * Return a lazily read stream of the frames in the input until the input ends. Frames are independent, so the
+     * stream splits at frame boundaries: the payloads of a batch of frames are read and handed to another thread for
+     * decoding.
+     */
+    public Stream<Object> stream(DataInput in) {
+        return StreamSupport.stream(new FrameSpliterator(in), false);
+    }
+
+    void verify(byte[] payload, int expectedChecksum) throws StreamCorruptedException {
+        if (checksum != null) {
+            checksum.reset();
+            checksum.update(payload, 0, payload.length);
+            if ((int) checksum.getValue() != expectedChecksum) {
+                throw new StreamCorruptedException("Frame checksum does not match.");
+            }
+        }
+    }
+
+    /**
+     * Decode a verified payload. Can be called from several threads at a time.
+     */
+    Object decode(byte[] payload) throws IOException {
+        ByteBufferDataInput payloadIn = new ByteBufferDataInput(payload);
+        Stasis.Reader reader = stasis.newReader();
+        try {
+            Object message = reader.readTypeAndObject(payloadIn);
+            ByteBuffer buffer = payloadIn.buffer();
+            if (buffer.hasRemaining()) {
+                throw new StreamCorruptedException("Frame has " + buffer.remaining() + " trailing bytes.");
+            }
+            return message;
+        } finally {
+            reader.close();
+        }
+    }
+
+    void checkFrameLength(int length) throws StreamCorruptedException {
+        if (length < 0 || length > maxFrameLength) {
+            throw new StreamCorruptedException("Frame length " + length + " is outside of 0.." + maxFrameLength + ".");
+        }
+    }
+
+    private byte[] readPayload(int length, DataInput in) throws IOException {
+        checkFrameLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        verify(payload, checksum != null ? in.readInt() : 0);
+        return payload;
+    }
+
+    /**
+     * Return the next payload or null if the input ends before the next frame.
+     */
+    private byte[] readPayloadOrNull(DataInput in) throws IOException {
+        int firstByte;
+        try {
+            firstByte = in.readUnsignedByte();
+        } catch (EOFException e) {
+            return null;
+        }
+        return readPayload(Varint.readUnsignedVarInt(firstByte, in), in);
+    }
+
+    private class FrameSpliterator implements Spliterator<Object> {
+
+        private final DataInput in;
+        private int batch = 0;
+
+        public FrameSpliterator(DataInput in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            try {
+                byte[] payload = readPayloadOrNull(in);
+                if (payload == null) {
+                    return false;
+                }
+                action.accept(decode(payload));
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            batch = Math.min(batch + BATCH_INCREMENT, MAX_BATCH);
+            List<byte[]> payloads = new ArrayList<>();
+            try {
+                byte[] payload;
+                while (payloads.size() < batch && (payload = readPayloadOrNull(in)) != null) {
+                    payloads.add(payload);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return payloads.isEmpty() ? null : new PayloadSpliterator(payloads, 0, payloads.size());
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+
+    }
+
+    private class PayloadSpliterator implements Spliterator<Object> {
+
+        private final List<byte[]> payloads;
+        private int index;
+        private final int end;
+
+        public PayloadSpliterator(List<byte[]> payloads, int index, int end) {
+            this.payloads = payloads;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if (index >= end) {
+                return false;
+            }
+            try {
+                action.accept(decode(payloads.get(index++)));
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            int middle = (index + end) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            Spliterator<Object> prefix = new PayloadSpliterator(payloads, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+    }
+
+}
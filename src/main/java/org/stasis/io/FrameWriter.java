@@ -0,0 +1,56 @@
+package org.stasis.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.zip.Checksum;
+
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * <p>
+ * Writes each message as a frame: the payload length as a varint, the payload written with a new
+ * {@link Stasis.Writer} and optionally the CRC32C checksum of the payload as a big-endian int.
+ * </p>
+ * 
+ * <p>
+ * The payload is encoded into a reusable buffer after room for the longest length prefix, and the prefix is written
+ * right before the payload afterwards, so the frame is passed to the output as one slice of the buffer. Frame writers
+ * are not thread-safe.
+ * </p>
+ */
+public class FrameWriter {
+
+    static final int MAX_LENGTH_PREFIX = 5;
+
+    private final Stasis stasis;
+    private final Checksum checksum;
+    private final ByteArrayDataOutput buffer = new ByteArrayDataOutput();
+
+    public FrameWriter(Stasis stasis, boolean checksums) {
+        this.stasis = stasis;
+        this.checksum = checksums ? Crc32c.create() : null;
+    }
+
+    public void writeFrame(Object message, DataOutput out) throws IOException {
+        buffer.reset();
+        buffer.skip(MAX_LENGTH_PREFIX);
+        Stasis.Writer writer = stasis.newWriter();
+        try {
+            writer.writeTypeAndObject(message, buffer);
+        } finally {
+            writer.close();
+        }
+        int length = buffer.size() - MAX_LENGTH_PREFIX;
+        if (checksum != null) {
+            checksum.reset();
+            checksum.update(buffer.array(), MAX_LENGTH_PREFIX, length);
+            buffer.writeInt((int) checksum.getValue());
+        }
+        int start = MAX_LENGTH_PREFIX - Varint.unsignedVarIntSize(length);
+        Varint.writeUnsignedVarInt(length, buffer.array(), start);
+        out.write(buffer.array(), start, buffer.size() - start);
+    }
+
+}
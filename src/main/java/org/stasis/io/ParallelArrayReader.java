@@ -0,0 +1,150 @@
+package org.stasis.io;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+/**
+ * Reads arrays written by {@link ParallelArrayWriter}, decoding the chunks in parallel on a {@link ForkJoinPool}. Each
+ * chunk is read into its own buffer and handed to the pool right away, so decoding overlaps with reading the following
+ * chunks.
+ */
+public class ParallelArrayReader {
+
+    private static final int READ_CHUNK = 8192;
+    // Approximate size of an array element holding a reference.
+    private static final int REFERENCE_SIZE = 4;
+
+    private final Stasis stasis;
+    private final ForkJoinPool pool;
+
+    public ParallelArrayReader(Stasis stasis, ForkJoinPool pool) {
+        this.stasis = stasis;
+        this.pool = pool;
+    }
+
+    /**
+     * Read an array. The array size and the chunk lengths are checked against the length limit and the allocation
+     * budget of the {@link Stasis} instance before anything is allocated for them.
+     * 
+     * @throws StreamCorruptedException
+     *             if the chunk index does not match the array size or exceeds the limits.
+     */
+    public Object[] readArray(DataInput in) throws IOException {
+        Stasis.Reader limits = stasis.newReader();
+        try {
+            return readArray(in, limits);
+        } finally {
+            limits.close();
+        }
+    }
+
+    private Object[] readArray(DataInput in, Stasis.Reader limits) throws IOException {
+        int size = Varint.readUnsignedVarInt(in);
+        int chunks = Varint.readUnsignedVarInt(in);
+        if (size < 0 || chunks < 0 || chunks > size) {
+            throw new StreamCorruptedException("Invalid array of " + size + " elements in " + chunks + " chunks.");
+        }
+        limits.checkLength(size, REFERENCE_SIZE);
+        int[] counts = new int[chunks];
+        int[] lengths = new int[chunks];
+        long elements = 0;
+        for (int i = 0; i < chunks; i++) {
+            counts[i] = Varint.readUnsignedVarInt(in);
+            lengths[i] = Varint.readUnsignedVarInt(in);
+            if (counts[i] <= 0 || lengths[i] < 0) {
+                throw new StreamCorruptedException("Invalid chunk of " + counts[i] + " elements in " + lengths[i]
+                                                   + " bytes.");
+            }
+            limits.allocate(lengths[i]);
+            elements += counts[i];
+        }
+        if (elements != size) {
+            throw new StreamCorruptedException("Chunks hold " + elements + " elements instead of " + size + ".");
+        }
+
+        Object[] array = new Object[size];
+        List<ChunkTask> tasks = new ArrayList<>(chunks);
+        try {
+            int from = 0;
+            for (int i = 0; i < chunks; i++) {
+                ChunkTask task = new ChunkTask(array, from, from + counts[i], readChunk(in, lengths[i]));
+                pool.execute(task);
+                tasks.add(task);
+                from += counts[i];
+            }
+        } finally {
+            for (ChunkTask task : tasks) {
+                task.join();
+            }
+        }
+        for (ChunkTask task : tasks) {
+            if (task.error != null) {
+                throw task.error;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Read the bytes of a chunk, sharing the memory of a {@link ByteBufferDataInput} and otherwise growing the copy
+     * while reading, so that a corrupt length fails at the end of input instead of allocating up front.
+     */
+    private static ByteBuffer readChunk(DataInput in, int length) throws IOException {
+        if (in instanceof ByteBufferDataInput) {
+            return ((ByteBufferDataInput) in).slice(length);
+        }
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK)];
+        in.readFully(bytes);
+        for (int read = bytes.length; read < length; read = bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+            in.readFully(bytes, read, bytes.length - read);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] array;
+        private final int from;
+        private final int to;
+        private final ByteBuffer bytes;
+        private IOException error;
+
+        public ChunkTask(Object[] array, int from, int to, ByteBuffer bytes) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected void compute() {
+            ByteBufferDataInput in = new ByteBufferDataInput(bytes);
+            Stasis.Reader reader = stasis.newReader();
+            try {
+                for (int i = from; i < to; i++) {
+                    array[i] = reader.readTypeAndObject(in);
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                reader.close();
+            }
+        }
+
+    }
+
+}
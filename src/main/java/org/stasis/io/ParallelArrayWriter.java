@@ -0,0 +1,121 @@
+package org.stasis.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+import org.stasis.pool.BufferPool;
+
+/**
+ * <p>
+ * Writes large arrays and collections in chunks which are serialized in parallel on a {@link ForkJoinPool}. Each chunk
+ * is written with its own {@link Stasis.Writer} and buffer, so references are only shared within a chunk.
+ * </p>
+ * 
+ * <p>
+ * The output is the element count and the chunk count as varints, an index of element count and byte length for each
+ * chunk, and the chunk bytes in order. The output is the same regardless of the pool size. Arrays are read with
+ * {@link ParallelArrayReader}.
+ * </p>
+ */
+public class ParallelArrayWriter {
+
+    private final Stasis stasis;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelArrayWriter(Stasis stasis, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, was " + chunkSize + ".");
+        }
+        this.stasis = stasis;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public void writeCollection(Collection<?> collection, DataOutput out) throws IOException {
+        writeArray(collection.toArray(), out);
+    }
+
+    /**
+     * Write the array. Nothing is written to the output unless all chunks were serialized successfully.
+     */
+    public void writeArray(Object[] array, DataOutput out) throws IOException {
+        int chunks = (array.length + chunkSize - 1) / chunkSize;
+        final List<ChunkTask> tasks = new ArrayList<>(chunks);
+        try {
+            for (int i = 0; i < chunks; i++) {
+                tasks.add(new ChunkTask(array, i * chunkSize, Math.min(array.length, (i + 1) * chunkSize)));
+            }
+            pool.invoke(new RecursiveAction() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+
+            });
+            for (ChunkTask task : tasks) {
+                if (task.error != null) {
+                    throw task.error;
+                }
+            }
+
+            Varint.writeUnsignedVarInt(array.length, out);
+            Varint.writeUnsignedVarInt(chunks, out);
+            for (ChunkTask task : tasks) {
+                Varint.writeUnsignedVarInt(task.to - task.from, out); // element count
+                Varint.writeUnsignedVarInt(task.buffer.size(), out); // byte length
+            }
+            for (ChunkTask task : tasks) {
+                out.write(task.buffer.array(), 0, task.buffer.size());
+            }
+        } finally {
+            for (ChunkTask task : tasks) {
+                task.buffer.release();
+            }
+        }
+    }
+
+    private class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] array;
+        private final int from;
+        private final int to;
+        private final ByteArrayDataOutput buffer = new ByteArrayDataOutput(BufferPool.shared());
+        private IOException error;
+
+        public ChunkTask(Object[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            Stasis.Writer writer = stasis.newWriter();
+            try {
+                for (int i = from; i < to; i++) {
+                    writer.writeTypeAndObject(array[i], buffer);
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                writer.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.stasis.metrics;
+
+/**
+ * Receives measurements from writers and readers of a Stasis instance with this listener set. Called from the
+ * serializing threads, so implementations must be thread-safe and cheap.
+ * <p>
+ * Bytes and latencies of an object include the objects nested in it, but not the header of the object itself. Bytes
+ * are -1 when the output or input does not expose its position, latencies are -1 when the object was not sampled.
+ */
+public interface MetricsListener {
+
+    void objectWritten(Class<?> type, long bytes, long nanos);
+
+    void objectRead(Class<?> type, long bytes, long nanos);
+
+    void referenceWritten();
+
+    void referenceRead();
+
+    /**
+     * Called when a writer is closed with the number of objects in its reference table.
+     */
+    void writerClosed(int referenceTableSize);
+
+    /**
+     * Called when a reader is closed with the number of objects in its reference table.
+     */
+    void readerClosed(int referenceTableSize);
+}
@@ -0,0 +1,140 @@
+package org.stasis.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsListener} that accumulates measurements into {@link LongAdder}s. Allocates only when a type is seen for
+ * the first time.
+ */
+public class StasisMetrics implements MetricsListener {
+
+    public static class TypeMetrics {
+
+        private final LongAdder objectsWritten = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder objectsRead = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LatencyHistogram writeLatency = new LatencyHistogram();
+        private final LatencyHistogram readLatency = new LatencyHistogram();
+
+        public long objectsWritten() {
+            return objectsWritten.sum();
+        }
+
+        public long bytesWritten() {
+            return bytesWritten.sum();
+        }
+
+        public long objectsRead() {
+            return objectsRead.sum();
+        }
+
+        public long bytesRead() {
+            return bytesRead.sum();
+        }
+
+        public LatencyHistogram writeLatency() {
+            return writeLatency;
+        }
+
+        public LatencyHistogram readLatency() {
+            return readLatency;
+        }
+    }
+
+    private final ConcurrentMap<Class<?>, TypeMetrics> types = new ConcurrentHashMap<>();
+    private final LongAdder referencesWritten = new LongAdder();
+    private final LongAdder referencesRead = new LongAdder();
+    private final LongAccumulator maxWriterReferenceTableSize = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxReaderReferenceTableSize = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public void objectWritten(Class<?> type, long bytes, long nanos) {
+        TypeMetrics metrics = metricsFor(type);
+        metrics.objectsWritten.increment();
+        if (bytes >= 0) {
+            metrics.bytesWritten.add(bytes);
+        }
+        if (nanos >= 0) {
+            metrics.writeLatency.record(nanos);
+        }
+    }
+
+    @Override
+    public void objectRead(Class<?> type, long bytes, long nanos) {
+        TypeMetrics metrics = metricsFor(type);
+        metrics.objectsRead.increment();
+        if (bytes >= 0) {
+            metrics.bytesRead.add(bytes);
+        }
+        if (nanos >= 0) {
+            metrics.readLatency.record(nanos);
+        }
+    }
+
+    @Override
+    public void referenceWritten() {
+        referencesWritten.increment();
+    }
+
+    @Override
+    public void referenceRead() {
+        referencesRead.increment();
+    }
+
+    @Override
+    public void writerClosed(int referenceTableSize) {
+        maxWriterReferenceTableSize.accumulate(referenceTableSize);
+    }
+
+    @Override
+    public void readerClosed(int referenceTableSize) {
+        maxReaderReferenceTableSize.accumulate(referenceTableSize);
+    }
+
+    /**
+     * Return the metrics of the given type. Types that have not been seen return empty metrics.
+     */
+    public TypeMetrics type(Class<?> type) {
+        TypeMetrics metrics = types.get(type);
+        return metrics == null ? new TypeMetrics() : metrics;
+    }
+
+    public Map<Class<?>, TypeMetrics> types() {
+        return Collections.unmodifiableMap(types);
+    }
+
+    public long referencesWritten() {
+        return referencesWritten.sum();
+    }
+
+    public long referencesRead() {
+        return referencesRead.sum();
+    }
+
+    public long maxWriterReferenceTableSize() {
+        return maxWriterReferenceTableSize.get();
+    }
+
+    public long maxReaderReferenceTableSize() {
+        return maxReaderReferenceTableSize.get();
+    }
+
+    private TypeMetrics metricsFor(Class<?> type) {
+        TypeMetrics metrics = types.get(type);
+        if (metrics == null) {
+            TypeMetrics newMetrics = new TypeMetrics();
+            metrics = types.putIfAbsent(type, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+
+}
@@ -0,0 +1,328 @@
+package org.stasis.pool;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool which creates objects on demand up to a maximum size and drops objects that have been idle longer than the idle
+ * timeout. Idle objects are dropped while borrowing and releasing, so the pool needs no background thread.
+ * <p>
+ * Besides the blocking {@link #borrow()}, objects can be borrowed with a timeout or as a {@link CompletionStage} that
+ * completes when another caller releases an object.
+ */
+public class AdaptiveObjectPool<A> implements ObjectPool<A> {
+
+    private static final class Idle<A> {
+
+        private final A object;
+        private final long since;
+
+        public Idle(A object, long since) {
+            this.object = object;
+            this.since = since;
+        }
+    }
+
+    private static final class Waiter<A> {
+
+        private final CompletableFuture<A> future = new CompletableFuture<>();
+        private final long since = System.nanoTime();
+    }
+
+    private final ObjectFactory<A> factory;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    // Most recently released objects first, so the objects at the end have been idle the longest.
+    private final Deque<Idle<A>> idle = new ArrayDeque<>();
+    private final Deque<Waiter<A>> waiters = new ArrayDeque<>();
+    private int size = 0;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AdaptiveObjectPool(int maxSize, long idleTimeout, TimeUnit unit, ObjectFactory<A> factory) {
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.factory = factory;
+    }
+
+    @Override
+    public A borrow() {
+        return tryBorrow(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Borrow an object, waiting at most the given time for one to be released when the pool is full. Returns null if
+     * none was released in time.
+     */
+    public A tryBorrow(long timeout, TimeUnit unit) {
+        A object = null;
+        boolean create = false;
+        lock.lock();
+        try {
+            dropIdle(System.nanoTime());
+            Idle<A> entry = idle.pollFirst();
+            if (entry == null && size >= maxSize) {
+                entry = await(unit.toNanos(timeout));
+            }
+            if (entry != null) {
+                object = entry.object;
+            } else if (size < maxSize) {
+                size++;
+                create = true;
+            } else {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            lock.unlock();
+        }
+        if (create) {
+            object = create();
+        }
+        factory.onBorrow(object);
+        borrows.increment();
+        return object;
+    }
+
+    /**
+     * Borrow an object without blocking. The returned stage completes immediately when an object is available and
+     * otherwise when one is released, in the releasing thread.
+     */
+    public CompletionStage<A> borrowAsync() {
+        A object = null;
+        lock.lock();
+        try {
+            dropIdle(System.nanoTime());
+            Idle<A> entry = idle.pollFirst();
+            if (entry != null) {
+                object = entry.object;
+            } else if (size < maxSize) {
+                size++;
+            } else {
+                Waiter<A> waiter = new Waiter<>();
+                waiters.addLast(waiter);
+                waits.increment();
+                waiter.future.whenComplete((o, e) -> {
+                    if (waiter.future.isCancelled()) {
+                        remove(waiter);
+                    }
+                });
+                return waiter.future;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (object == null) {
+            object = create();
+        }
+        factory.onBorrow(object);
+        borrows.increment();
+        return CompletableFuture.completedFuture(object);
+    }
+
+    @Override
+    public boolean release(A object) {
+        factory.onRelease(object);
+        offer(object);
+        return true;
+    }
+
+    private void offer(A object) {
+        while (true) {
+            Waiter<A> waiter;
+            lock.lock();
+            try {
+                waiter = waiters.pollFirst();
+                if (waiter == null) {
+                    long now = System.nanoTime();
+                    idle.addFirst(new Idle<>(object, now));
+                    dropIdle(now);
+                    released.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (handOver(waiter, object)) {
+                return;
+            }
+            // The waiter was cancelled, offer the object to the next one.
+            factory.onRelease(object);
+        }
+    }
+
+    /**
+     * Number of objects created by this pool and not yet dropped, including borrowed objects.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int idle() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fraction of the maximum size that is currently borrowed.
+     */
+    public double utilization() {
+        lock.lock();
+        try {
+            return (double) (size - idle.size()) / maxSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long borrows() {
+        return borrows.sum();
+    }
+
+    /**
+     * Number of borrows that had to wait for a release.
+     */
+    public long waits() {
+        return waits.sum();
+    }
+
+    /**
+     * Total time borrows have waited for a release. Divided by {@link #waits()} this is the mean wait time.
+     */
+    public long waitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * Number of objects created so far. Sampled over time this is the creation rate.
+     */
+    public long created() {
+        return created.sum();
+    }
+
+    /**
+     * Number of objects dropped after being idle longer than the idle timeout.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private Idle<A> await(long nanos) throws InterruptedException {
+        waits.increment();
+        long start = System.nanoTime();
+        Object event = PoolRecording.beginWait();
+        Idle<A> entry;
+        try {
+            while ((entry = idle.pollFirst()) == null && size >= maxSize && nanos > 0) {
+                nanos = released.awaitNanos(nanos);
+            }
+        } finally {
+            PoolRecording.endWait(event, this);
+            waitNanos.add(System.nanoTime() - start);
+        }
+        return entry;
+    }
+
+    private boolean handOver(Waiter<A> waiter, A object) {
+        long waited = System.nanoTime() - waiter.since;
+        factory.onBorrow(object);
+        if (waiter.future.complete(object)) {
+            waitNanos.add(waited);
+            borrows.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void remove(Waiter<A> waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private A create() {
+        try {
+            A object = factory.create();
+            created.increment();
+            return object;
+        } catch (RuntimeException | Error e) {
+            freeSlot();
+            throw e;
+        }
+    }
+
+    /**
+     * Give the slot of an object that could not be created to the first asynchronous waiter, which no release would
+     * complete otherwise, or free it for the blocked borrowers when nobody waits asynchronously.
+     */
+    private void freeSlot() {
+        while (true) {
+            Waiter<A> waiter;
+            lock.lock();
+            try {
+                waiter = waiters.pollFirst();
+                if (waiter == null) {
+                    size--;
+                    released.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (waiter.future.isDone()) {
+                continue;
+            }
+            A object;
+            try {
+                object = factory.create();
+                created.increment();
+            } catch (RuntimeException | Error e) {
+                waiter.future.completeExceptionally(e);
+                continue;
+            }
+            if (!handOver(waiter, object)) {
+                // The waiter was cancelled meanwhile, the new object goes to the next one or becomes idle.
+                factory.onRelease(object);
+                offer(object);
+            }
+            return;
+        }
+    }
+
+    private void dropIdle(long now) {
+        Idle<A> oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.since > idleTimeoutNanos) {
+            idle.pollLast();
+            size--;
+            dropped.increment();
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.stasis.pool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Pool of heap byte arrays and direct byte buffers in power of two size classes from 64 bytes to 1 GB. Borrowed
+ * buffers have at least the requested capacity, larger requests are allocated exactly and not pooled.
+ * </p>
+ * 
+ * <p>
+ * Released buffers go first to a small cache of the releasing thread and then to a global reservoir, both bounded by
+ * their total bytes. Buffers that fit neither are left to the garbage collector. A buffer must not be used after it has
+ * been released.
+ * </p>
+ */
+public class BufferPool {
+
+    private static final int MIN_SHIFT = 6;
+    private static final int MAX_SHIFT = 30;
+    private static final int SIZE_CLASSES = MAX_SHIFT - MIN_SHIFT + 1;
+
+    private static final BufferPool SHARED = new BufferPool(4, 1 << 20, 64L << 20);
+
+    private final class Cache {
+
+        private final byte[][][] arrays = new byte[SIZE_CLASSES][threadLocalEntries][];
+        private final int[] arrayCounts = new int[SIZE_CLASSES];
+        private final ByteBuffer[][] directs = new ByteBuffer[SIZE_CLASSES][threadLocalEntries];
+        private final int[] directCounts = new int[SIZE_CLASSES];
+        private long bytes = 0;
+
+        private boolean fits(int capacity) {
+            return bytes + capacity <= threadLocalCapacity;
+        }
+    }
+
+    private final int threadLocalEntries;
+    private final long threadLocalCapacity;
+    private final long reservoirCapacity;
+
+    private final ThreadLocal<Cache> caches = new ThreadLocal<Cache>() {
+
+        @Override
+        protected Cache initialValue() {
+            return new Cache();
+        }
+
+    };
+    private final ConcurrentLinkedQueue<byte[]>[] arrays;
+    private final ConcurrentLinkedQueue<ByteBuffer>[] directs;
+    private final AtomicLong reservoirBytes = new AtomicLong(0);
+
+    /**
+     * Create a pool which caches up to threadLocalEntries buffers of each size class per thread, but no more than
+     * threadLocalCapacity bytes of buffers per thread in total, and up to reservoirCapacity bytes of buffers globally.
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool(int threadLocalEntries, long threadLocalCapacity, long reservoirCapacity) {
+        this.threadLocalEntries = threadLocalEntries;
+        this.threadLocalCapacity = threadLocalCapacity;
+        this.reservoirCapacity = reservoirCapacity;
+        this.arrays = new ConcurrentLinkedQueue[SIZE_CLASSES];
+        this.directs = new ConcurrentLinkedQueue[SIZE_CLASSES];
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            arrays[i] = new ConcurrentLinkedQueue<>();
+            directs[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Return the pool shared by the library, which caches up to 1 MB of buffers per thread and holds up to 64 MB
+     * globally. Cached buffers stay reachable until they are borrowed again or their thread ends, so the shared pool can
+     * retain 64 MB plus 1 MB for every thread that released a buffer, part of it as direct memory.
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    public byte[] borrowArray(int minCapacity) {
+        int sizeClass = sizeClassFor(minCapacity);
+        if (sizeClass < 0) {
+            return new byte[minCapacity];
+        }
+        Cache cache = caches.get();
+        int count = cache.arrayCounts[sizeClass];
+        if (count > 0) {
+            byte[] array = cache.arrays[sizeClass][--count];
+            cache.arrays[sizeClass][count] = null;
+            cache.arrayCounts[sizeClass] = count;
+            cache.bytes -= array.length;
+            return array;
+        }
+        byte[] array = arrays[sizeClass].poll();
+        if (array != null) {
+            reservoirBytes.addAndGet(-array.length);
+            return array;
+        }
+        return new byte[1 << (sizeClass + MIN_SHIFT)];
+    }
+
+    public void releaseArray(byte[] array) {
+        int sizeClass = sizeClassOf(array.length);
+        if (sizeClass < 0) {
+            return;
+        }
+        Cache cache = caches.get();
+        int count = cache.arrayCounts[sizeClass];
+        if (count < threadLocalEntries && cache.fits(array.length)) {
+            cache.arrays[sizeClass][count] = array;
+            cache.arrayCounts[sizeClass] = count + 1;
+            cache.bytes += array.length;
+            return;
+        }
+        if (reserve(array.length)) {
+            arrays[sizeClass].offer(array);
+        }
+    }
+
+    /**
+     * Borrow a cleared direct buffer with at least the given capacity.
+     */
+    public ByteBuffer borrowDirect(int minCapacity) {
+        int sizeClass = sizeClassFor(minCapacity);
+        if (sizeClass < 0) {
+            return ByteBuffer.allocateDirect(minCapacity);
+        }
+        Cache cache = caches.get();
+        int count = cache.directCounts[sizeClass];
+        ByteBuffer buffer;
+        if (count > 0) {
+            buffer = cache.directs[sizeClass][--count];
+            cache.directs[sizeClass][count] = null;
+            cache.directCounts[sizeClass] = count;
+            cache.bytes -= buffer.capacity();
+        } else {
+            buffer = directs[sizeClass].poll();
+            if (buffer != null) {
+                reservoirBytes.addAndGet(-buffer.capacity());
+            } else {
+                return ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SHIFT));
+            }
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    public void releaseDirect(ByteBuffer buffer) {
+        int sizeClass = buffer.isDirect() ? sizeClassOf(buffer.capacity()) : -1;
+        if (sizeClass < 0) {
+            return;
+        }
+        Cache cache = caches.get();
+        int count = cache.directCounts[sizeClass];
+        if (count < threadLocalEntries && cache.fits(buffer.capacity())) {
+            cache.directs[sizeClass][count] = buffer;
+            cache.directCounts[sizeClass] = count + 1;
+            cache.bytes += buffer.capacity();
+            return;
+        }
+        if (reserve(buffer.capacity())) {
+            directs[sizeClass].offer(buffer);
+        }
+    }
+
+    /**
+     * Bytes currently held in the global reservoir.
+     */
+    public long reservoirBytes() {
+        return reservoirBytes.get();
+    }
+
+    private boolean reserve(int bytes) {
+        if (reservoirBytes.addAndGet(bytes) <= reservoirCapacity) {
+            return true;
+        }
+        reservoirBytes.addAndGet(-bytes);
+        return false;
+    }
+
+    /**
+     * Return the smallest size class holding the given capacity, or -1 when it is larger than the largest class.
+     */
+    private static int sizeClassFor(int capacity) {
+        if (capacity <= 1 << MIN_SHIFT) {
+            return 0;
+        } else if (capacity > 1 << MAX_SHIFT) {
+            return -1;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * Return the size class of exactly the given capacity, or -1 when it is not a pooled capacity.
+     */
+    private static int sizeClassOf(int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 1 << MIN_SHIFT || capacity > 1 << MAX_SHIFT) {
+            return -1;
+        }
+        return Integer.numberOfTrailingZeros(capacity) - MIN_SHIFT;
+    }
+
+}
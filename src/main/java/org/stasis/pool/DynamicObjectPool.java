@@ -22,11 +22,13 @@ public class DynamicObjectPool<A> implements ObjectPool<A> {
     public A borrow() {
         A object = pool.poll();
         if (object == null) {
-            if (size.get() < maxSize && this.size.incrementAndGet() <= maxSize) {
+            if (reserve()) {
                 object = factory.create();
             } else {
                 try {
+                    Object event = PoolRecording.beginWait();
                     object = pool.take();
+                    PoolRecording.endWait(event, this);
                 } catch (InterruptedException e) {
                     throw new IllegalStateException(e);
                 }
@@ -36,6 +38,19 @@ public class DynamicObjectPool<A> implements ObjectPool<A> {
         return object;
     }
 
+    /**
+     * Reserve room for a new object, or return false when the pool is full.
+     */
+    private boolean reserve() {
+        int current;
+        while ((current = size.get()) < maxSize) {
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean release(A object) {
         factory.onRelease(object);
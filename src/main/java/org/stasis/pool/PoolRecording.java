@@ -0,0 +1,19 @@
+package org.stasis.pool;
+
+/**
+ * Hooks for JDK Flight Recorder events of pool borrow waits. This version records nothing, the Java 11 layer of the
+ * multi-release jar replaces it with one that commits events when they are enabled in a recording.
+ */
+final class PoolRecording {
+
+    private PoolRecording() {
+    }
+
+    static Object beginWait() {
+        return null;
+    }
+
+    static void endWait(Object event, ObjectPool<?> pool) {
+    }
+
+}
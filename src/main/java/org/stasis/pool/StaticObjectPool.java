@@ -22,7 +22,12 @@ public class StaticObjectPool<A> implements ObjectPool<A> {
     @Override
     public A borrow() {
         try {
-            A object = pool.take();
+            A object = pool.poll();
+            if (object == null) {
+                Object event = PoolRecording.beginWait();
+                object = pool.take();
+                PoolRecording.endWait(event, this);
+            }
             factory.onBorrow(object);
             return object;
         } catch (InterruptedException e) {
@@ -0,0 +1,11 @@
+package org.stasis;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.stasis.ReaderSession")
+@Label("Reader Session")
+@Description("Objects read by a Stasis.Reader from its creation until it is closed")
+class ReaderSessionEvent extends SessionEvent {
+}
@@ -0,0 +1,79 @@
+package org.stasis;
+
+import jdk.jfr.EventType;
+
+/**
+ * Commits {@link WriterSessionEvent}s, {@link ReaderSessionEvent}s and {@link SlowObjectEvent}s when they are enabled in
+ * a running recording.
+ */
+class Recording {
+
+    private static final EventType WRITER_SESSION = EventType.getEventType(WriterSessionEvent.class);
+    private static final EventType READER_SESSION = EventType.getEventType(ReaderSessionEvent.class);
+    private static final EventType SLOW_OBJECT = EventType.getEventType(SlowObjectEvent.class);
+
+    private final SessionEvent session;
+    private final boolean slowObjects;
+
+    private Recording(SessionEvent session, boolean slowObjects) {
+        this.session = session;
+        this.slowObjects = slowObjects;
+        if (session != null) {
+            session.begin();
+        }
+    }
+
+    static Recording writerSession() {
+        boolean slowObjects = SLOW_OBJECT.isEnabled();
+        if (WRITER_SESSION.isEnabled()) {
+            return new Recording(new WriterSessionEvent(), slowObjects);
+        }
+        return slowObjects ? new Recording(null, true) : null;
+    }
+
+    static Recording readerSession() {
+        boolean slowObjects = SLOW_OBJECT.isEnabled();
+        if (READER_SESSION.isEnabled()) {
+            return new Recording(new ReaderSessionEvent(), slowObjects);
+        }
+        return slowObjects ? new Recording(null, true) : null;
+    }
+
+    Object beginObject() {
+        if (!slowObjects) {
+            return null;
+        }
+        SlowObjectEvent event = new SlowObjectEvent();
+        event.begin();
+        return event;
+    }
+
+    void endObject(Object event, boolean write, Class<?> type, long bytes) {
+        if (event == null) {
+            return;
+        }
+        SlowObjectEvent slowObject = (SlowObjectEvent) event;
+        slowObject.end();
+        if (slowObject.shouldCommit()) {
+            slowObject.operation = write ? "write" : "read";
+            slowObject.type = type;
+            slowObject.bytes = bytes;
+            slowObject.commit();
+        }
+    }
+
+    void close(int objects, int references, long bytes, int referenceTableSize) {
+        if (session == null) {
+            return;
+        }
+        session.end();
+        if (session.shouldCommit()) {
+            session.objects = objects;
+            session.references = references;
+            session.bytes = bytes;
+            session.maxReferenceTableSize = referenceTableSize;
+            session.commit();
+        }
+    }
+
+}
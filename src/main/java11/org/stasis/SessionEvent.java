@@ -0,0 +1,27 @@
+package org.stasis;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+@Category("Stasis")
+abstract class SessionEvent extends Event {
+
+    @Label("Objects")
+    int objects;
+
+    @Label("References")
+    @Description("Objects written or read as back-references")
+    int references;
+
+    @Label("Bytes")
+    @Description("Encoded bytes of the top-level objects without their headers, -1 when unknown")
+    @DataAmount
+    long bytes;
+
+    @Label("Max Reference Table Size")
+    int maxReferenceTableSize;
+
+}
@@ -0,0 +1,28 @@
+package org.stasis;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("org.stasis.SlowObject")
+@Label("Slow Object")
+@Description("Object, including the objects nested in it, that took longer than the threshold to write or read")
+@Category("Stasis")
+@Threshold("10 ms")
+class SlowObjectEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+}
@@ -0,0 +1,11 @@
+package org.stasis;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.stasis.WriterSession")
+@Label("Writer Session")
+@Description("Objects written by a Stasis.Writer from its creation until it is closed")
+class WriterSessionEvent extends SessionEvent {
+}
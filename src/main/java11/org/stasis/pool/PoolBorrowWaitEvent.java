@@ -0,0 +1,18 @@
+package org.stasis.pool;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.stasis.PoolBorrowWait")
+@Label("Pool Borrow Wait")
+@Description("Borrow that waited for another thread to release an object to the pool")
+@Category("Stasis")
+class PoolBorrowWaitEvent extends Event {
+
+    @Label("Pool")
+    Class<?> pool;
+
+}
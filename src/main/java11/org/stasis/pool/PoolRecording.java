@@ -0,0 +1,36 @@
+package org.stasis.pool;
+
+import jdk.jfr.EventType;
+
+/**
+ * Commits {@link PoolBorrowWaitEvent}s when they are enabled in a running recording.
+ */
+final class PoolRecording {
+
+    private static final EventType BORROW_WAIT = EventType.getEventType(PoolBorrowWaitEvent.class);
+
+    private PoolRecording() {
+    }
+
+    static Object beginWait() {
+        if (!BORROW_WAIT.isEnabled()) {
+            return null;
+        }
+        PoolBorrowWaitEvent event = new PoolBorrowWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endWait(Object event, ObjectPool<?> pool) {
+        if (event == null) {
+            return;
+        }
+        PoolBorrowWaitEvent borrowWait = (PoolBorrowWaitEvent) event;
+        borrowWait.end();
+        if (borrowWait.shouldCommit()) {
+            borrowWait.pool = pool.getClass();
+            borrowWait.commit();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.stasis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteBufferDataInputTest {
+
+    @Test
+    public void readsWhatDataOutputWrites() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeBoolean(true);
+        out.writeByte(-1);
+        out.writeShort(-2);
+        out.writeChar('a');
+        out.writeInt(3);
+        out.writeLong(4l);
+        out.writeFloat(5f);
+        out.writeDouble(6.0);
+        out.writeUTF("string");
+
+        ByteBufferDataInput in = new ByteBufferDataInput(baos.toByteArray());
+        Assert.assertEquals(true, in.readBoolean());
+        Assert.assertEquals(255, in.readUnsignedByte());
+        Assert.assertEquals(-2, in.readShort());
+        Assert.assertEquals('a', in.readChar());
+        Assert.assertEquals(3, in.readInt());
+        Assert.assertEquals(4l, in.readLong());
+        Assert.assertEquals(5f, in.readFloat(), 0f);
+        Assert.assertEquals(6.0, in.readDouble(), 0.0);
+        Assert.assertEquals("string", in.readUTF());
+        Assert.assertFalse(in.buffer().hasRemaining());
+    }
+
+    @Test
+    public void sliceSharesMemory() throws IOException {
+        byte[] bytes = { 1, 2, 3, 4 };
+        ByteBufferDataInput in = new ByteBufferDataInput(bytes);
+        in.readByte();
+        ByteBuffer slice = in.slice(2);
+        Assert.assertEquals(2, slice.remaining());
+        Assert.assertEquals(4, in.readByte());
+        bytes[1] = 7;
+        Assert.assertEquals(7, slice.get(0));
+    }
+
+    @Test
+    public void readsBigEndianFromLittleEndianBuffers() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 0, 0, 1, 0, 2, 0, 0, 0, 0, 0, 0, 0, 3, 0, 4 })
+                                      .order(ByteOrder.LITTLE_ENDIAN);
+        ByteBufferDataInput in = new ByteBufferDataInput(buffer);
+        Assert.assertEquals(1, in.readInt());
+        Assert.assertEquals(2, in.readShort());
+        Assert.assertEquals(3L, in.readLong());
+        Assert.assertEquals(4, in.slice(2).getShort());
+        Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+        Assert.assertEquals(0, buffer.position());
+    }
+
+    @Test(expected = EOFException.class)
+    public void readingPastEndThrowsEOFException() throws IOException {
+        new ByteBufferDataInput(new byte[] { 1 }).readInt();
+    }
+}
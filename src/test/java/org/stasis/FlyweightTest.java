@@ -0,0 +1,170 @@
+package org.stasis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.stasis.Stasis.Reader;
+import org.stasis.Stasis.Writer;
+
+public class FlyweightTest {
+
+    private byte[] bytes;
+
+    @Before
+    public void before() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        QuoteSerializer serializer = new QuoteSerializer();
+        for (int i = 0; i < 100; i++) {
+            serializer.write(null, out, new Quote(i, i * 1.5, (short) -i, i % 2 == 0));
+        }
+        bytes = baos.toByteArray();
+    }
+
+    @Test
+    public void viewReadsRecordsFromByteArray() {
+        QuoteView view = new QuoteView();
+        view.wrap(bytes, 0);
+        assertRecords(view);
+    }
+
+    @Test
+    public void viewReadsRecordsFromByteBuffer() {
+        QuoteView view = new QuoteView();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        view.wrap(buffer, 0);
+        assertRecords(view);
+    }
+
+    @Test
+    public void viewCanStartAtOffset() {
+        QuoteView view = new QuoteView();
+        view.wrap(bytes, view.encodedLength() * 10);
+        Assert.assertEquals(10, view.id());
+    }
+
+    @Test
+    public void viewReadsLittleEndianBufferAsBigEndian() {
+        QuoteView view = new QuoteView();
+        view.wrap(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0);
+        assertRecords(view);
+    }
+
+    @Test
+    public void viewReadsObjectsWrittenByWriter() throws IOException {
+        assertWrittenRecords(false);
+    }
+
+    @Test
+    public void viewReadsObjectsWrittenWithCompactHeaders() throws IOException {
+        assertWrittenRecords(true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void viewRejectsReferences() throws IOException {
+        Stasis.Writer writer = Stasis.create().newWriter();
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        Quote quote = new Quote(1, 1.5, (short) 1, true);
+        writer.writeObject(quote, out, new QuoteSerializer());
+        writer.writeObject(quote, out, new QuoteSerializer());
+        writer.close();
+
+        QuoteView view = new QuoteView();
+        view.wrapObjects(out.toByteArray(), 0, false);
+        view.next();
+    }
+
+    private void assertWrittenRecords(boolean compactHeaders) throws IOException {
+        Stasis.Writer writer = Stasis.create().setCompactHeaders(compactHeaders).newWriter();
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        QuoteSerializer serializer = new QuoteSerializer();
+        for (int i = 0; i < 100; i++) {
+            writer.writeObject(new Quote(i, i * 1.5, (short) -i, i % 2 == 0), out, serializer);
+        }
+        writer.close();
+
+        QuoteView view = new QuoteView();
+        view.wrapObjects(out.toByteArray(), 0, compactHeaders);
+        assertRecords(view);
+        view.wrapObjects(ByteBuffer.wrap(out.toByteArray()), 0, compactHeaders);
+        assertRecords(view);
+    }
+
+    private void assertRecords(QuoteView view) {
+        int i = 0;
+        do {
+            Assert.assertEquals(i, view.id());
+            Assert.assertEquals(i * 1.5, view.price(), 0.0);
+            Assert.assertEquals((short) -i, view.size());
+            Assert.assertEquals(i % 2 == 0, view.open());
+            i++;
+        } while (view.next());
+        Assert.assertEquals(100, i);
+    }
+
+    private static class Quote {
+
+        private final long id;
+        private final double price;
+        private final short size;
+        private final boolean open;
+
+        public Quote(long id, double price, short size, boolean open) {
+            this.id = id;
+            this.price = price;
+            this.size = size;
+            this.open = open;
+        }
+    }
+
+    private static class QuoteSerializer implements Serializer<Quote> {
+
+        @Override
+        public void write(Writer writer, DataOutput out, Quote value) throws IOException {
+            Serializers.forLong().write(writer, out, value.id);
+            Serializers.forDouble().write(writer, out, value.price);
+            Serializers.forShort().write(writer, out, value.size);
+            Serializers.forBoolean().write(writer, out, value.open);
+        }
+
+        @Override
+        public Quote read(Reader reader, DataInput in) throws IOException {
+            return new Quote(Serializers.forLong().read(reader, in), Serializers.forDouble().read(reader, in),
+                             Serializers.forShort().read(reader, in), Serializers.forBoolean().read(reader, in));
+        }
+
+    }
+
+    private static class QuoteView extends Flyweight {
+
+        @Override
+        public int encodedLength() {
+            return 19;
+        }
+
+        public long id() {
+            return getLong(0);
+        }
+
+        public double price() {
+            return getDouble(8);
+        }
+
+        public short size() {
+            return getShort(16);
+        }
+
+        public boolean open() {
+            return getBoolean(18);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.stasis;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs against the packaged multi-release jar, so the Java 11 {@link Recording} commits the events.
+ */
+public class RecordingIT {
+
+    @Test
+    public void sessionsAndSlowObjectsAreRecorded() throws IOException {
+        Stasis stasis = Stasis.create().registerNull().registerPrimitives().registerString().registerStringArray();
+        Path file = Files.createTempFile("stasis", ".jfr");
+        try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+            recording.enable("org.stasis.WriterSession");
+            recording.enable("org.stasis.ReaderSession");
+            recording.enable("org.stasis.SlowObject").withThreshold(Duration.ZERO);
+            recording.start();
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Stasis.Writer writer = stasis.newWriter();
+            writer.writeObject(new String[] {"a", "b"}, new DataOutputStream(baos), String[].class);
+            writer.close();
+            Stasis.Reader reader = stasis.newReader();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+            Assert.assertArrayEquals(new String[] {"a", "b"}, reader.readObject(in, String[].class));
+            reader.close();
+
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<String> names = events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toList());
+            Assert.assertTrue(names.toString(), names.contains("org.stasis.WriterSession"));
+            Assert.assertTrue(names.toString(), names.contains("org.stasis.ReaderSession"));
+            Assert.assertTrue(names.toString(), names.contains("org.stasis.SlowObject"));
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().endsWith("Session")) {
+                    Assert.assertEquals(1, event.getInt("objects"));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -6,12 +6,26 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -197,6 +211,564 @@ public class StasisTest {
                                  (Object[]) reader.readTypeAndObject(in));
     }
 
+    @Test
+    public void typeRunObjectArray() throws IOException {
+        String[] strings = { "string1", "string2", "string3" };
+        Object[] array = new Object[100];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i < 50 ? (Object) (double) i : (i < 90 ? strings[i % 3] : null);
+        }
+
+        writer.writeObject(array, out, Serializers.forTypeRunObjectArray());
+
+        DataInputStream in = in();
+        Object[] result = reader.readObject(in, Serializers.forTypeRunObjectArray());
+        Assert.assertArrayEquals(array, result);
+        Assert.assertSame("references work inside runs", result[50], result[53]);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void typeRunObjectArrayRejectsEmptyRun() throws IOException {
+        out.writeByte(0); // object header
+        out.writeByte(2); // array size
+        out.writeByte(0); // run length
+        reader.readObject(in(), Serializers.forTypeRunObjectArray());
+    }
+
+    @Test
+    public void compactHeadersInlineSmallValues() throws IOException {
+        stasis.setCompactHeaders(true);
+        writer = stasis.newWriter();
+        reader = stasis.newReader();
+
+        writer.writeTypeAndObject(null, out);
+        writer.writeTypeAndObject(true, out);
+        writer.writeTypeAndObject(false, out);
+        writer.writeTypeAndObject("", out);
+        writer.writeTypeAndObject(-8, out);
+        writer.writeTypeAndObject(51, out);
+        Assert.assertEquals("tiny values take one byte each", 6, baos.size());
+        writer.writeTypeAndObject(52, out);
+        writer.writeTypeAndObject("string", out);
+        writer.writeTypeAndObject("string", out);
+        writer.writeObject(7, out, Integer.class);
+
+        DataInputStream in = in();
+        Assert.assertEquals(null, reader.readTypeAndObject(in));
+        Assert.assertEquals(true, reader.readTypeAndObject(in));
+        Assert.assertEquals(false, reader.readTypeAndObject(in));
+        Assert.assertEquals("", reader.readTypeAndObject(in));
+        Assert.assertEquals(-8, reader.readTypeAndObject(in));
+        Assert.assertEquals(51, reader.readTypeAndObject(in));
+        Assert.assertEquals(52, reader.readTypeAndObject(in));
+        Object string = reader.readTypeAndObject(in);
+        Assert.assertEquals("string", string);
+        Assert.assertSame("references work with compact headers", string, reader.readTypeAndObject(in));
+        Assert.assertEquals((Integer) 7, reader.readObject(in, Integer.class));
+    }
+
+    @Test
+    public void skipFramedObjects() throws IOException {
+        stasis.register(List.class, Serializers.forFramed(new ListSerializer()));
+        String string = "string";
+        writer.writeTypeAndObject(Arrays.asList("obj1", string, Arrays.asList("obj2")), out);
+        writer.writeTypeAndObject("obj3", out);
+        writer.writeTypeAndObject("obj3", out);
+        writer.writeTypeAndObject(string, out);
+
+        DataInputStream in = in();
+        reader.skipObject(in);
+        Object obj3 = reader.readTypeAndObject(in);
+        Assert.assertEquals("obj3", obj3);
+        Assert.assertSame("references after skipped object are correct", obj3, reader.readTypeAndObject(in));
+        try {
+            reader.readTypeAndObject(in);
+            Assert.fail("reference to a skipped object can not be read");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void skipRejectsFramesWithMoreNestedObjectsThanBytes() throws IOException {
+        out.writeByte(1); // length
+        out.writeByte(5); // nested objects
+        out.writeByte(0);
+        ((SkippableSerializer) Serializers.forFramed(new ListSerializer())).skip(reader, in());
+    }
+
+    @Test
+    public void framedObjectsCanBeRead() throws IOException {
+        stasis.register(List.class, Serializers.forFramed(new ListSerializer()));
+        writer.writeTypeAndObject(Arrays.asList("obj1", Arrays.asList("obj2")), out);
+        writer.writeTypeAndObject("obj3", out);
+
+        DataInputStream in = in();
+        Assert.assertEquals(Arrays.asList("obj1", Arrays.asList("obj2")), reader.readTypeAndObject(in));
+        reader.skipObject(in);
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void framedObjectsArePatchedInPlace() throws IOException {
+        stasis.register(List.class, Serializers.forFramed(new ListSerializer()));
+        List<Object> large = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            large.add("value" + i);
+        }
+        List<Object> value = Arrays.<Object> asList("small", Arrays.asList(large, "x"), large);
+        ByteArrayDataOutput bytes = new ByteArrayDataOutput();
+        writer.writeTypeAndObject(value, bytes);
+        writer.writeTypeAndObject("after", bytes);
+        Stasis.Writer streamWriter = stasis.newWriter();
+        streamWriter.writeTypeAndObject(value, out);
+        streamWriter.writeTypeAndObject("after", out);
+        streamWriter.close();
+
+        Assert.assertArrayEquals("same bytes as through a stream", baos.toByteArray(), bytes.toByteArray());
+        DataInputStream in = in();
+        Assert.assertEquals(value, reader.readTypeAndObject(in));
+        reader.skipObject(in);
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void lazyValuesAreDecodedOnFirstGet() throws IOException {
+        Serializer<Lazy<List>> serializer = Serializers.forLazy(List.class);
+        List<Object> list = Arrays.<Object> asList("obj1", "obj1", Arrays.asList("obj2"));
+        writer.writeObject(Lazy.<List> of(list), out, serializer);
+        writer.writeTypeAndObject("obj3", out);
+        byte[] bytes = baos.toByteArray();
+
+        DataInputStream in = in();
+        Lazy<List> lazy = reader.readObject(in, serializer);
+        Assert.assertEquals("obj3", reader.readTypeAndObject(in));
+        Assert.assertFalse(lazy.isDecoded());
+
+        baos.reset();
+        Stasis.Writer writer2 = stasis.newWriter();
+        writer2.writeObject(lazy, out, serializer);
+        writer2.writeTypeAndObject("obj3", out);
+        writer2.close();
+        Assert.assertArrayEquals("undecoded lazy value is written as its bytes", bytes, baos.toByteArray());
+
+        Assert.assertEquals(list, lazy.get());
+        Assert.assertTrue(lazy.isDecoded());
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void lazyValuesAreSizedAndCopied() throws IOException {
+        Serializer<Lazy<List>> serializer = Serializers.forLazy(List.class);
+        stasis.register(Lazy.class, (Serializer) serializer);
+        List<Object> list = new ArrayList<>(Arrays.<Object> asList("obj1", new int[] { 1 }));
+        Lazy<List> decoded = Lazy.<List> of(list);
+        assertSizeOf(decoded);
+        writer.writeObject(decoded, out, serializer);
+        Lazy<List> encoded = reader.readObject(in(), serializer);
+        assertSizeOf(encoded);
+
+        Lazy<List> copy = stasis.copy(encoded);
+        Assert.assertNotSame(encoded, copy);
+        Assert.assertFalse("encoded bytes are shared", copy.isDecoded());
+        Assert.assertEquals("obj1", copy.get().get(0));
+
+        copy = stasis.copy(decoded);
+        Assert.assertTrue(copy.isDecoded());
+        Assert.assertNotSame(list, copy.get());
+        Assert.assertArrayEquals(new int[] { 1 }, (int[]) copy.get().get(1));
+    }
+
+    @Test
+    public void byteBuffersAndUtf8ViewsShareInputMemory() throws IOException {
+        writer.writeObject(new byte[] { 1, 2, 3 }, out, byte[].class);
+        writer.writeObject("v\u65e5\u672c", out, String.class);
+        writer.writeObject("", out, String.class);
+        byte[] bytes = baos.toByteArray();
+
+        ByteBufferDataInput in = new ByteBufferDataInput(bytes);
+        ByteBuffer buffer = reader.readObject(in, Serializers.forByteBuffer());
+        Utf8View view = reader.readObject(in, Serializers.forUtf8View());
+        Utf8View empty = reader.readObject(in, Serializers.forUtf8View());
+
+        Assert.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), buffer);
+        Assert.assertTrue(buffer.isReadOnly());
+        bytes[2] = 5;
+        Assert.assertEquals("buffer shares memory with input", 5, buffer.get(0));
+
+        Assert.assertEquals(3, view.length());
+        Assert.assertEquals("v\u65e5\u672c", view.toString());
+        Assert.assertEquals("", empty.toString());
+
+        baos.reset();
+        Stasis.Writer writer2 = stasis.newWriter();
+        writer2.writeObject(view, out, Serializers.forUtf8View());
+        writer2.close();
+        Assert.assertEquals("v\u65e5\u672c", reader.readObject(in(), String.class));
+    }
+
+    @Test
+    public void readIntoReusesArraysOfSameLength() throws IOException {
+        writer.writeObject(new int[] { 1, 2 }, out, int[].class);
+        writer.writeObject(new byte[] { 3, 4 }, out, byte[].class);
+        writer.writeObject(new String[] { "string1", "string2" }, out, String[].class);
+        writer.writeObject(new Object[] { 5, "string3" }, out, Object[].class);
+        writer.writeObject(new int[] { 6, 7, 8 }, out, int[].class);
+
+        DataInputStream in = in();
+        int[] ints = new int[2];
+        byte[] bytes = new byte[2];
+        String[] strings = new String[2];
+        Object[] objects = new Object[2];
+        Assert.assertSame(ints, reader.readObjectInto(in, int[].class, ints));
+        Assert.assertSame(bytes, reader.readObjectInto(in, byte[].class, bytes));
+        Assert.assertSame(strings, reader.readObjectInto(in, String[].class, strings));
+        Assert.assertSame(objects, reader.readObjectInto(in, Object[].class, objects));
+        Assert.assertArrayEquals(new int[] { 1, 2 }, ints);
+        Assert.assertArrayEquals(new byte[] { 3, 4 }, bytes);
+        Assert.assertArrayEquals(new String[] { "string1", "string2" }, strings);
+        Assert.assertArrayEquals(new Object[] { 5, "string3" }, objects);
+        Assert.assertArrayEquals("new array for different length", new int[] { 6, 7, 8 },
+                                 reader.readObjectInto(in, int[].class, ints));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void readIntoReusesPrimitiveArrays() throws IOException {
+        char[] chars = { 'a', 'b' };
+        short[] shorts = { -1, 2 };
+        long[] longs = { Long.MIN_VALUE, 3 };
+        float[] floats = { 4.5f, Float.NaN };
+        double[] doubles = { -6.5, Double.MAX_VALUE };
+        Object[] arrays = { chars, shorts, longs, floats, doubles };
+        for (Object array : arrays) {
+            writer.writeObject(array, out, (Class<Object>) array.getClass());
+        }
+
+        DataInputStream in = in();
+        for (Object array : arrays) {
+            Object target = Array.newInstance(array.getClass().getComponentType(), 2);
+            Assert.assertSame(target, reader.readObjectInto(in, (Class<Object>) array.getClass(), target));
+            for (int i = 0; i < 2; i++) {
+                Assert.assertEquals(Array.get(array, i), Array.get(target, i));
+            }
+        }
+    }
+
+    @Test
+    public void objectsCanBeStreamed() throws IOException {
+        writer.writeTypeAndObject("obj1", out);
+        writer.writeTypeAndObject(2, out);
+        writer.writeTypeAndObject("obj1", out);
+        writer.writeTypeAndObject(null, out);
+
+        Assert.assertEquals(Arrays.asList("obj1", 2, "obj1", null), reader.stream(in()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void typedObjectsCanBeStreamed() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            writer.writeObject(i, out, Integer.class);
+        }
+
+        Assert.assertEquals(19900, reader.<Integer> stream(in(), Integer.class).mapToInt(Integer::intValue).sum());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void streamFailsWhenInputEndsInsideObject() throws IOException {
+        writer.writeTypeAndObject("obj1", out);
+        writer.writeTypeAndObject(1000000L, out);
+        byte[] bytes = baos.toByteArray();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+
+        reader.stream(in).count();
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void readFailsWhenLengthExceedsLimit() throws IOException {
+        writer.writeTypeAndObject(new int[100], out);
+        stasis.setMaxLength(99).newReader().readTypeAndObject(in());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void readFailsWhenStringExceedsLimit() throws IOException {
+        writer.writeTypeAndObject("too long", out);
+        stasis.setMaxStringBytes(7).newReader().readTypeAndObject(in());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void readFailsWhenCollectionExceedsLimit() throws IOException {
+        stasis.register(List.class, new LimitedListSerializer());
+        writer.writeTypeAndObject(new ArrayList<>(Arrays.asList(1, 2, 3)), out);
+        stasis.setMaxLength(2).newReader().readTypeAndObject(in());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void readFailsWhenGraphIsDeeperThanLimit() throws IOException {
+        writer.writeTypeAndObject(new Object[] { new Object[] { new Object[] { "deep" } } }, out);
+        stasis.setMaxDepth(3).newReader().readTypeAndObject(in());
+    }
+
+    @Test
+    public void failedReadRestoresDepth() throws IOException {
+        writer.writeTypeAndObject(new Object[] { new Object[] { new Object[] { "deep" } } }, out);
+        reader = stasis.setMaxDepth(3).newReader();
+        try {
+            reader.readTypeAndObject(in());
+            Assert.fail();
+        } catch (StreamCorruptedException e) {
+            // expected
+        }
+        baos.reset();
+        stasis.newWriter().writeTypeAndObject(new Object[] { new Object[] { 1 } }, out);
+        Object[] array = (Object[]) reader.readTypeAndObject(in());
+        Assert.assertEquals(1, ((Object[]) array[0])[0]);
+    }
+
+    @Test
+    public void readWithinDepthLimit() throws IOException {
+        writer.writeTypeAndObject(new Object[] { new Object[] { new Object[] { "deep" } } }, out);
+        Object[] array = (Object[]) stasis.setMaxDepth(4).newReader().readTypeAndObject(in());
+        Assert.assertEquals("deep", ((Object[]) ((Object[]) array[0])[0])[0]);
+    }
+
+    @Test
+    public void allocationBudgetCoversWholeReaderSession() throws IOException {
+        writer.writeTypeAndObject(new byte[600], out);
+        writer.writeTypeAndObject(new byte[600], out);
+        reader = stasis.setAllocationBudget(1000).newReader();
+        DataInputStream in = in();
+        reader.readTypeAndObject(in);
+        try {
+            reader.readTypeAndObject(in);
+            Assert.fail();
+        } catch (StreamCorruptedException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void corruptLengthFailsAtEndOfInputWithoutAllocatingIt() throws IOException {
+        writer.writeTypeAndObject(new byte[0], out);
+        byte header = baos.toByteArray()[0];
+        baos.reset();
+        out.writeByte(header);
+        Varint.writeUnsignedVarInt(Integer.MAX_VALUE - 8, out); // corrupt length
+        out.write(new byte[100]);
+        reader.readTypeAndObject(in());
+    }
+
+    @Test
+    public void largeArraysAreReadInChunks() throws IOException {
+        long[] longs = new long[3 * Serializers.READ_CHUNK + 1];
+        Arrays.fill(longs, 7);
+        String[] strings = new String[longs.length];
+        Arrays.fill(strings, "s");
+        byte[] bytes = new byte[longs.length];
+        Arrays.fill(bytes, (byte) 7);
+        writer.writeTypeAndObject(longs, out);
+        writer.writeTypeAndObject(strings, out);
+        writer.writeTypeAndObject(bytes, out);
+
+        DataInputStream in = in();
+        Assert.assertArrayEquals(longs, (long[]) reader.readTypeAndObject(in));
+        Assert.assertArrayEquals(strings, (String[]) reader.readTypeAndObject(in));
+        Assert.assertArrayEquals(bytes, (byte[]) reader.readTypeAndObject(in));
+    }
+
+    @Test
+    public void commonTypes() throws IOException {
+        stasis.registerCommonTypes();
+        List<Object> values = Arrays.<Object> asList(Instant.ofEpochSecond(1700000000L, 123456789),
+                                                     Instant.ofEpochSecond(-1000, 1),
+                                                     Duration.ofMillis(-1500),
+                                                     LocalDate.of(2024, 2, 29),
+                                                     LocalTime.of(23, 59, 59, 999999999),
+                                                     LocalDateTime.of(1969, 12, 31, 0, 0),
+                                                     UUID.randomUUID(),
+                                                     BigInteger.valueOf(Long.MIN_VALUE),
+                                                     BigInteger.ONE.shiftLeft(100).negate(),
+                                                     new BigDecimal("123.4500"),
+                                                     new BigDecimal("-1E+10"),
+                                                     new BigDecimal("3.141592653589793238462643383279502884197"));
+        for (Object value : values) {
+            writer.writeTypeAndObject(value, out);
+        }
+        DataInputStream in = in();
+        for (Object value : values) {
+            Assert.assertEquals(value, reader.readTypeAndObject(in));
+        }
+    }
+
+    @Test
+    public void commonTypesAreSmallerThanStrings() throws IOException {
+        stasis.registerCommonTypes();
+        Instant instant = Instant.ofEpochSecond(1700000000L, 123456789);
+        writer.writeObject(instant, out, Instant.class);
+        Assert.assertEquals(10, baos.size());
+
+        baos.reset();
+        writer.writeObject(new BigDecimal("19.99"), out, BigDecimal.class);
+        Assert.assertEquals(5, baos.size());
+
+        baos.reset();
+        writer.writeObject(UUID.randomUUID(), out, UUID.class);
+        Assert.assertEquals(17, baos.size());
+    }
+
+    @Test
+    public void copyPreservesSharingAndSharesImmutables() throws IOException {
+        int[] ints = { 1, 2, 3 };
+        String string = new String("string");
+        Object[] nested = { ints, string };
+        Object[] graph = { nested, nested, ints, 1L, new String[] { string }, new byte[] { 4 } };
+
+        Object[] copy = stasis.copy(graph);
+
+        Assert.assertNotSame(graph, copy);
+        Assert.assertNotSame(nested, copy[0]);
+        Assert.assertSame(copy[0], copy[1]);
+        Assert.assertNotSame(ints, copy[2]);
+        Assert.assertSame(copy[2], ((Object[]) copy[0])[0]);
+        Assert.assertArrayEquals(ints, (int[]) copy[2]);
+        Assert.assertSame(string, ((Object[]) copy[0])[1]);
+        Assert.assertSame(graph[3], copy[3]);
+        Assert.assertSame(string, ((String[]) copy[4])[0]);
+        Assert.assertArrayEquals(new byte[] { 4 }, (byte[]) copy[5]);
+        Assert.assertNotSame(graph[5], copy[5]);
+    }
+
+    @Test
+    public void copyPreservesCycles() throws IOException {
+        Object[] graph = new Object[2];
+        graph[0] = graph;
+        graph[1] = "value";
+
+        Object[] copy = stasis.copy(graph);
+
+        Assert.assertNotSame(graph, copy);
+        Assert.assertSame(copy, copy[0]);
+        Assert.assertEquals("value", copy[1]);
+    }
+
+    @Test
+    public void copyFallsBackToBytes() throws IOException {
+        List<Object> list = new ArrayList<>(Arrays.<Object> asList(1, "2", new int[] { 3 }));
+
+        List<?> copy = stasis.copy(list);
+
+        Assert.assertNotSame(list, copy);
+        Assert.assertEquals(3, copy.size());
+        Assert.assertEquals("2", copy.get(1));
+        Assert.assertArrayEquals(new int[] { 3 }, (int[]) copy.get(2));
+    }
+
+    @Test
+    public void copyThroughBytesKeepsSharingBetweenValues() throws IOException {
+        int[] shared = new int[] { 1 };
+        List<Object> list1 = new ArrayList<>(Arrays.<Object> asList(shared));
+        List<Object> list2 = new ArrayList<>(Arrays.<Object> asList("2", shared));
+
+        Object[] copy = stasis.copy(new Object[] { list1, list2 });
+
+        int[] copied = (int[]) ((List<?>) copy[0]).get(0);
+        Assert.assertNotSame(shared, copied);
+        Assert.assertArrayEquals(shared, copied);
+        Assert.assertSame(copied, ((List<?>) copy[1]).get(1));
+    }
+
+    @Test
+    public void copyOfUtf8ViewDoesNotShareInputMemory() throws IOException {
+        stasis.register(Utf8View.class, Serializers.forUtf8View());
+        writer.writeObject("abc", out, String.class);
+        byte[] bytes = baos.toByteArray();
+        Utf8View view = reader.readObject(new ByteBufferDataInput(bytes), Serializers.forUtf8View());
+
+        Utf8View copy = stasis.copy(view);
+        bytes[bytes.length - 3] = 'x';
+
+        Assert.assertEquals("xbc", view.toString());
+        Assert.assertEquals("abc", copy.toString());
+        Assert.assertEquals(3, copy.length());
+    }
+
+    @Test
+    public void sizeOfMatchesWrittenBytes() throws IOException {
+        stasis.registerCommonTypes();
+        stasis.register(TestEnum.class, Serializers.forEnum(TestEnum.class));
+        String shared = "shared \u00e9\u4e2d\ud83d\ude00 \ud800";
+        int[] ints = { 1, -2, 300 };
+        List<Object> values = Arrays.<Object> asList(null, 1, -70000, 3L, 'c', 1.5, true, "", "ascii", shared,
+                                                     new Object[] { shared, shared, ints, new Object[] { ints } },
+                                                     new String[] { "a", shared },
+                                                     new Integer[] { 1, 128 }, new long[] { Long.MIN_VALUE },
+                                                     new long[] { 0, 1L << 40, -1 }, new double[] { 0.5 },
+                                                     new char[] { 'a', '\u4e2d' }, new short[] { -1 },
+                                                     new float[] { 1.5f, 2 }, new int[0], TestEnum.VAL2,
+                                                     Arrays.asList(shared, Arrays.asList(ints, "x")),
+                                                     Instant.ofEpochSecond(-1, 5), Duration.ofDays(3),
+                                                     LocalDateTime.of(2024, 2, 29, 12, 0), UUID.randomUUID(),
+                                                     BigInteger.ONE.shiftLeft(70), BigInteger.valueOf(-5),
+                                                     new BigDecimal("-123.456"), new byte[] { 1, 2 });
+        for (Object value : values) {
+            assertSizeOf(value);
+        }
+        assertSizeOf(values.toArray());
+    }
+
+    @Test
+    public void sizeOfMatchesWrittenBytesWithCompactHeaders() throws IOException {
+        stasis.setCompactHeaders(true);
+        writer = stasis.newWriter();
+        for (Object value : Arrays.asList(null, true, "", 7, 52, -9, "string", "string", new Object[] { 51, "s", "s" })) {
+            assertSizeOf(value);
+        }
+    }
+
+    @Test
+    public void sizeOfFramedAndTypeRunValues() throws IOException {
+        stasis.register(List.class, Serializers.forFramed(new ListSerializer()));
+        String string = "string";
+        assertSizeOf(Arrays.asList(string, string, Arrays.asList("nested", string)));
+        assertSizeOf(string);
+
+        Object[] array = new Object[20];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i < 8 ? (Object) i : (i < 15 ? "run" + i % 2 : null);
+        }
+        long size = writer.sizeOf(array, Serializers.forTypeRunObjectArray());
+        int start = baos.size();
+        writer.writeObject(array, out, Serializers.forTypeRunObjectArray());
+        Assert.assertEquals(baos.size() - start, size);
+    }
+
+    @Test
+    public void sizeOfLeavesReferencesUnchanged() throws IOException {
+        String string = "string";
+        Object[] array = { string, string };
+        writer.writeTypeAndObject(string, out);
+        long size = writer.sizeOf(array);
+        Assert.assertEquals("sizing again gives the same size", size, writer.sizeOf(array));
+        int start = baos.size();
+        writer.writeTypeAndObject(array, out);
+        Assert.assertEquals(baos.size() - start, size);
+        Assert.assertEquals("written array is sized as a reference", 1, writer.sizeOf(array));
+
+        DataInputStream in = in();
+        Object first = reader.readTypeAndObject(in);
+        Object[] result = (Object[]) reader.readTypeAndObject(in);
+        Assert.assertSame(first, result[0]);
+        Assert.assertSame(first, result[1]);
+    }
+
+    private void assertSizeOf(Object value) throws IOException {
+        long size = writer.sizeOf(value);
+        int start = baos.size();
+        writer.writeTypeAndObject(value, out);
+        Assert.assertEquals("size of " + value, baos.size() - start, size);
+    }
+
     @Test
     public void objectsAreSerializedOnlyOnceAndReferencedAfterwards() throws IOException {
         writer.writeObject("string", out, String.class);
@@ -328,4 +900,20 @@ public class StasisTest {
         }
 
     }
+
+    @SuppressWarnings("rawtypes")
+    private class LimitedListSerializer extends ListSerializer {
+
+        @Override
+        public List read(Reader reader, DataInput in) throws IOException {
+            int size = in.readInt();
+            reader.checkLength(size, 4);
+            ArrayList<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(reader.readTypeAndObject(in));
+            }
+            return list;
+        }
+
+    }
 }
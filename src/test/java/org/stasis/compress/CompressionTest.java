@@ -0,0 +1,132 @@
+package org.stasis.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.stasis.Stasis;
+
+public class CompressionTest {
+
+    private Stasis stasis = Stasis.create().registerNull().registerBoxedPrimitives().registerString().registerObjectArray();
+
+    @Test
+    public void lzCodecRoundTrips() throws IOException {
+        Random rand = new Random(123);
+        assertLzRoundTrip(new byte[0]);
+        assertLzRoundTrip(new byte[] { 1, 2, 3 });
+        assertLzRoundTrip(new byte[1000]); // one long overlapping match
+        byte[] repetitive = new byte[100000];
+        for (int i = 0; i < repetitive.length; i++) {
+            repetitive[i] = (byte) (i % 300 < 200 ? i % 7 : rand.nextInt(4));
+        }
+        assertLzRoundTrip(repetitive);
+        byte[] random = new byte[5000];
+        rand.nextBytes(random);
+        assertLzRoundTrip(random);
+    }
+
+    @Test
+    public void lzCodecDoesNotOverflowOutput() {
+        byte[] random = new byte[1000];
+        new Random(123).nextBytes(random);
+        Assert.assertEquals(-1, new LzBlockCodec().compress(random, 0, random.length, new byte[999], 0, 999));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void lzCodecDetectsCorruptData() throws IOException {
+        new LzBlockCodec().decompress(new byte[] { 0x0F, 1, 5, 0 }, 0, 4, new byte[10], 0, 10);
+    }
+
+    @Test
+    public void objectsRoundTripThroughCompressedStream() throws IOException {
+        Object[] objects = new Object[10000];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = "repetitive string " + (i % 100);
+        }
+
+        for (BlockCodec codec : Arrays.asList(new LzBlockCodec(), new DeflateBlockCodec())) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(new CompressingOutputStream(baos, 4096, codec));
+            Stasis.Writer writer = stasis.newWriter();
+            for (Object object : objects) {
+                writer.writeTypeAndObject(new String((String) object), out);
+            }
+            writer.close();
+            out.close();
+            Assert.assertTrue("compressed size is small", baos.size() < 10000 * 5);
+
+            DataInputStream in = new DataInputStream(new DecompressingInputStream(new ByteArrayInputStream(baos.toByteArray()),
+                                                                                  new LzBlockCodec(), new DeflateBlockCodec()));
+            Stasis.Reader reader = stasis.newReader();
+            for (Object object : objects) {
+                Assert.assertEquals(object, reader.readTypeAndObject(in));
+            }
+            reader.close();
+            Assert.assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void incompressibleBlocksAreStored() throws IOException {
+        byte[] random = new byte[10000];
+        new Random(123).nextBytes(random);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CompressingOutputStream out = new CompressingOutputStream(baos, 4096, new LzBlockCodec(), new DeflateBlockCodec());
+        out.write(random);
+        out.close();
+        Assert.assertTrue("stored blocks have only a small header", baos.size() <= random.length + 3 * 5);
+
+        DataInputStream in = new DataInputStream(new DecompressingInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        byte[] result = new byte[random.length];
+        in.readFully(result);
+        Assert.assertArrayEquals(random, result);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void blocksLargerThanMaximumAreRejected() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CompressingOutputStream out = new CompressingOutputStream(baos, 4096, new DeflateBlockCodec());
+        out.write(new byte[4096]);
+        out.close();
+
+        new DecompressingInputStream(new ByteArrayInputStream(baos.toByteArray()), 1024, new DeflateBlockCodec()).read();
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void emptyBlocksAreRejected() throws IOException {
+        byte[] bytes = { CompressingOutputStream.STORED, 0, 0 };
+        new DecompressingInputStream(new ByteArrayInputStream(bytes)).read();
+    }
+
+    @Test
+    public void lzCodecCanBeReused() throws IOException {
+        LzBlockCodec codec = new LzBlockCodec();
+        byte[] first = new byte[8192];
+        new Random(1).nextBytes(first);
+        byte[] second = Arrays.copyOf("abcdabcdabcd".getBytes("UTF-8"), 100);
+        for (byte[] bytes : new byte[][] { first, second, first }) {
+            byte[] compressed = new byte[bytes.length * 2 + 16];
+            int length = codec.compress(bytes, 0, bytes.length, compressed, 0, compressed.length);
+            byte[] result = new byte[bytes.length];
+            codec.decompress(compressed, 0, length, result, 0, result.length);
+            Assert.assertArrayEquals(bytes, result);
+        }
+    }
+
+    private void assertLzRoundTrip(byte[] bytes) throws IOException {
+        LzBlockCodec codec = new LzBlockCodec();
+        byte[] compressed = new byte[bytes.length * 2 + 16];
+        int length = codec.compress(bytes, 0, bytes.length, compressed, 0, compressed.length);
+        byte[] result = new byte[bytes.length];
+        codec.decompress(compressed, 0, length, result, 0, result.length);
+        Assert.assertArrayEquals(bytes, result);
+    }
+}
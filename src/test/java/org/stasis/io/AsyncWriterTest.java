@@ -0,0 +1,107 @@
+package org.stasis.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+
+public class AsyncWriterTest {
+
+    private Stasis stasis = Stasis.create().registerNull().registerBoxedPrimitives().registerString().registerObjectArray();
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void encodedMessagesAreHandedOverInOrder() throws Exception {
+        AsyncWriter writer = new AsyncWriter(stasis, executor, 8);
+        final List<byte[]> received = Collections.synchronizedList(new ArrayList<byte[]>());
+        CompletableFuture<Void> done = null;
+        for (int i = 0; i < 200; i++) {
+            done = writer.write(i % 2 == 0 ? "message" + i : new Object[] { "message" + i, "message" + i })
+                         .thenAccept(new Consumer<AsyncWriter.Encoded>() {
+
+                             @Override
+                             public void accept(AsyncWriter.Encoded encoded) {
+                                 received.add(encoded.toByteArray());
+                                 encoded.release();
+                             }
+
+                         });
+        }
+        done.get();
+        writer.close();
+
+        Assert.assertEquals(200, received.size());
+        for (int i = 0; i < 200; i++) {
+            if (i % 2 == 0) {
+                Assert.assertEquals("message" + i, read(received.get(i)));
+            } else {
+                Object[] expected = { "message" + i, "message" + i };
+                Assert.assertArrayEquals("pooled writers are reset", expected, (Object[]) read(received.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void releasedBuffersAreReused() throws Exception {
+        AsyncWriter writer = new AsyncWriter(stasis, executor, 1);
+        AsyncWriter.Encoded first = writer.write("first").get();
+        byte[] array = first.array();
+        Assert.assertEquals("first", read(first.toByteArray()));
+        first.release();
+
+        AsyncWriter.Encoded second = writer.write("second").get();
+        Assert.assertSame(array, second.array());
+        Assert.assertEquals("second", read(second.toByteArray()));
+        second.release();
+        writer.close();
+    }
+
+    @Test
+    public void rejectedMessagesFailWithoutHoldingPermits() throws Exception {
+        ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+        AsyncWriter writer = new AsyncWriter(stasis, stopped, 1);
+        for (int i = 0; i < 3; i++) {
+            try {
+                writer.write("message").get();
+                Assert.fail("executor rejects the task");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+    }
+
+    @Test
+    public void defaultExecutorRunsTasks() throws Exception {
+        AsyncWriter writer = new AsyncWriter(stasis, AsyncWriter.defaultExecutor(), 2);
+        AsyncWriter.Encoded encoded = writer.write(42).get();
+        Assert.assertEquals(42, read(encoded.toByteArray()));
+        encoded.release();
+    }
+
+    private Object read(byte[] bytes) throws IOException {
+        Stasis.Reader reader = stasis.newReader();
+        try {
+            return reader.readTypeAndObject(new ByteBufferDataInput(bytes));
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.stasis.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.IdentityReferenceProviderFactory;
+import org.stasis.IdentityReferenceWriter;
+import org.stasis.ReferenceProviderFactory;
+import org.stasis.ReferenceReader;
+import org.stasis.ReferenceWriter;
+import org.stasis.Serializer;
+import org.stasis.Stasis;
+
+public class BatchTest {
+
+    private Stasis stasis = Stasis.create().registerNull().registerBoxedPrimitives().registerString().registerObjectArray();
+    private ByteArrayDataOutput out = new ByteArrayDataOutput();
+
+    @Test
+    public void batchIsFlushedWhenItIsFull() throws IOException {
+        BatchWriter writer = new BatchWriter(stasis, out, 32, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 100; i++) {
+            writer.write("message" + i);
+        }
+        Assert.assertTrue("full batches are written", out.size() > 0);
+        writer.flush();
+
+        BatchReader reader = new BatchReader(stasis);
+        DataInputStream in = in();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("message" + i, reader.next(in));
+        }
+        Assert.assertEquals(0, reader.remainingInBatch());
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void batchIsWrittenOnlyOnFlushBeforeDeadline() throws IOException {
+        BatchWriter writer = new BatchWriter(stasis, out, 1024, 1, TimeUnit.HOURS);
+        String string = "string";
+        writer.write(string);
+        writer.write(new Object[] { string, string });
+        writer.flushIfDue();
+        Assert.assertEquals(0, out.size());
+        writer.flush();
+
+        BatchReader reader = new BatchReader(stasis);
+        DataInputStream in = in();
+        Assert.assertEquals("string", reader.next(in));
+        Assert.assertArrayEquals("messages have own references", new Object[] { "string", "string" },
+                                 (Object[]) reader.next(in));
+    }
+
+    @Test
+    public void batchIsFlushedAfterDeadline() throws IOException {
+        BatchWriter writer = new BatchWriter(stasis, out, 1024, 0, TimeUnit.NANOSECONDS);
+        writer.write(1);
+        writer.write(2);
+        Assert.assertEquals(1, new BatchReader(stasis).next(in()));
+    }
+
+    @Test
+    public void batchIsFlushedOnSchedulerAfterDeadline() throws IOException, InterruptedException {
+        final CountDownLatch written = new CountDownLatch(1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                super.write(b, off, len);
+                written.countDown();
+            }
+
+        };
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            BatchWriter writer = new BatchWriter(stasis, new DataOutputStream(bytes), 1024, 10, TimeUnit.MILLISECONDS,
+                                                 scheduler);
+            writer.write("last message of a burst");
+            Assert.assertTrue("flushed without another write", written.await(10, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assert.assertEquals("last message of a burst", new BatchReader(stasis).next(in));
+    }
+
+    @Test
+    public void failedMessageIsDroppedFromBatch() throws IOException {
+        stasis.register(Failing.class, new Serializer<Failing>() {
+
+            @Override
+            public void write(Stasis.Writer writer, DataOutput out, Failing value) throws IOException {
+                writer.writeTypeAndObject("partial", out);
+                throw new IOException("failed");
+            }
+
+            @Override
+            public Failing read(Stasis.Reader reader, DataInput in) throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+        });
+        BatchWriter writer = new BatchWriter(stasis, out, 1024, 1, TimeUnit.HOURS);
+        writer.write("first");
+        try {
+            writer.write(new Failing());
+            Assert.fail("serializer throws");
+        } catch (IOException e) {
+            // expected
+        }
+        writer.write("partial");
+        writer.flush();
+        writer.write("second batch");
+        writer.close();
+
+        BatchReader reader = new BatchReader(stasis);
+        DataInputStream in = in();
+        Assert.assertEquals("first", reader.next(in));
+        Assert.assertEquals("partial", reader.next(in));
+        Assert.assertEquals(0, reader.remainingInBatch());
+        Assert.assertEquals("second batch", reader.next(in));
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void customReferenceWritersAreReplacedOnReset() throws IOException {
+        stasis.setReferenceProviderFactory(new ReferenceProviderFactory() {
+
+            @Override
+            public ReferenceWriter createWriter() {
+                final ReferenceWriter refs = new IdentityReferenceWriter();
+                return new ReferenceWriter() {
+
+                    @Override
+                    public int referenceFor(Object object) {
+                        return refs.referenceFor(object);
+                    }
+
+                    @Override
+                    public void registerObject(Object object) {
+                        refs.registerObject(object);
+                    }
+
+                    @Override
+                    public void close() {
+                        refs.close();
+                    }
+
+                };
+            }
+
+            @Override
+            public ReferenceReader createReader() {
+                return new IdentityReferenceProviderFactory().createReader();
+            }
+
+        });
+        BatchWriter writer = new BatchWriter(stasis, out, 1024, 1, TimeUnit.HOURS);
+        String string = "string";
+        writer.write(new Object[] { string, string });
+        writer.write(new Object[] { string, string });
+        writer.close();
+
+        BatchReader reader = new BatchReader(stasis);
+        DataInputStream in = in();
+        Assert.assertArrayEquals(new Object[] { string, string }, (Object[]) reader.next(in));
+        Assert.assertArrayEquals(new Object[] { string, string }, (Object[]) reader.next(in));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readingPastLastBatchThrowsEOFException() throws IOException {
+        new BatchReader(stasis).next(in());
+    }
+
+    private static class Failing {
+    }
+
+    private DataInputStream in() {
+        return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,115 @@
+package org.stasis.io;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Serializers;
+import org.stasis.Stasis;
+
+public class ContainerTest {
+
+    private Stasis stasis = Stasis.create().registerNull().registerBoxedPrimitives().registerString().registerObjectArray();
+    private List<Object> records = new ArrayList<>();
+    private ContainerReader reader;
+
+    @Before
+    public void before() throws IOException {
+        String shared = "shared";
+        for (int i = 0; i < 1000; i++) {
+            records.add(i % 2 == 0 ? "record" + i : new Object[] { i, shared, shared });
+        }
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        ContainerWriter writer = new ContainerWriter(stasis, out, 256);
+        for (Object record : records) {
+            writer.append(record);
+        }
+        writer.finish();
+        reader = new ContainerReader(stasis, ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void recordsAreSplitIntoBlocks() {
+        Assert.assertTrue(reader.blockCount() > 1);
+        Assert.assertEquals(1000, reader.recordCount());
+    }
+
+    @Test
+    public void recordsCanBeReadAtRandom() throws IOException {
+        for (int i : new int[] { 999, 0, 501, 2, 500 }) {
+            assertRecord(records.get(i), reader.get(i));
+        }
+    }
+
+    @Test
+    public void randomAccessResolvesReferencesToEarlierRecords() throws IOException {
+        stasis.register(int[].class, Serializers.forFramed(Serializers.forIntArray()));
+        int[] framed = new int[] { 1, 2, 3 };
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        ContainerWriter writer = new ContainerWriter(stasis, out, 256);
+        writer.append(framed);
+        writer.append(framed);
+        writer.finish();
+        ContainerReader container = new ContainerReader(stasis, ByteBuffer.wrap(out.toByteArray()));
+
+        List<Object> block = container.readBlock(0);
+        Assert.assertEquals(2, block.size());
+        Assert.assertSame(block.get(0), block.get(1));
+        Assert.assertArrayEquals(framed, (int[]) container.get(1));
+    }
+
+    @Test
+    public void blocksCanBeReadInParallel() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Object> result = reader.readAll(pool);
+            Assert.assertEquals(records.size(), result.size());
+            for (int i = 0; i < records.size(); i++) {
+                assertRecord(records.get(i), result.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void recordsCanBeStreamedInParallel() {
+        List<Object> result = reader.stream().parallel().collect(Collectors.toList());
+        Assert.assertEquals(records.size(), result.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertRecord(records.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    public void emptyContainer() throws IOException {
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        new ContainerWriter(stasis, out, 256).finish();
+        ContainerReader empty = new ContainerReader(stasis, ByteBuffer.wrap(out.toByteArray()));
+        Assert.assertEquals(0, empty.blockCount());
+        Assert.assertEquals(0, empty.recordCount());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void invalidContainerIsRejected() throws IOException {
+        new ContainerReader(stasis, ByteBuffer.wrap(new byte[32]));
+    }
+
+    private void assertRecord(Object expected, Object actual) {
+        if (expected instanceof Object[]) {
+            Object[] array = (Object[]) actual;
+            Assert.assertArrayEquals((Object[]) expected, array);
+            Assert.assertSame("references work within a block", array[1], array[2]);
+        } else {
+            Assert.assertEquals(expected, actual);
+        }
+    }
+}
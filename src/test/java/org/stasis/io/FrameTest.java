@@ -0,0 +1,145 @@
+package org.stasis.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.Checksum;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+public class FrameTest {
+
+    private Stasis stasis = Stasis.create().registerNull().registerBoxedPrimitives().registerString().registerObjectArray();
+    private ByteArrayDataOutput out = new ByteArrayDataOutput();
+
+    @Test
+    public void framesAreReadInOrder() throws IOException {
+        writeAndReadFrames(false);
+    }
+
+    @Test
+    public void framesWithChecksumsAreReadInOrder() throws IOException {
+        writeAndReadFrames(true);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void corruptedFrameIsDetected() throws IOException {
+        new FrameWriter(stasis, true).writeFrame("string", out);
+        out.array()[3] ^= 1;
+        new FrameReader(stasis, true).readFrame(in());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void hugeFrameLengthIsRejected() throws IOException {
+        Varint.writeUnsignedVarInt(Integer.MAX_VALUE, out);
+        new FrameReader(stasis, false).readFrame(in());
+    }
+
+    @Test
+    public void frameLengthLimitIsConfigurable() throws IOException {
+        new FrameWriter(stasis, false).writeFrame("string", out);
+        Assert.assertEquals("string", new FrameReader(stasis, false).setMaxFrameLength(9).readFrame(in()));
+        try {
+            new FrameReader(stasis, false).setMaxFrameLength(8).readFrame(in());
+            Assert.fail("frame is longer than the limit");
+        } catch (StreamCorruptedException e) {
+            // expected
+        }
+        FrameDecoder decoder = new FrameDecoder(stasis, false).setMaxFrameLength(8);
+        decoder.feed(ByteBuffer.wrap(out.toByteArray(), 0, 1));
+        try {
+            decoder.hasFrame();
+            Assert.fail("decoder rejects the frame from its prefix");
+        } catch (StreamCorruptedException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void decoderAcceptsFramesInPieces() throws IOException {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longString.append(i);
+        }
+        List<Object> messages = Arrays.<Object> asList("string", 1, null, longString.toString(), "");
+        FrameWriter writer = new FrameWriter(stasis, true);
+        for (Object message : messages) {
+            writer.writeFrame(message, out);
+        }
+        byte[] bytes = out.toByteArray();
+
+        FrameDecoder decoder = new FrameDecoder(stasis, true);
+        List<Object> decoded = new ArrayList<>();
+        Random rand = new Random(123);
+        int position = 0;
+        while (position < bytes.length) {
+            int length = Math.min(bytes.length - position, 1 + rand.nextInt(7));
+            decoder.feed(ByteBuffer.wrap(bytes, position, length));
+            position += length;
+            while (decoder.hasFrame()) {
+                decoded.add(decoder.nextFrame());
+            }
+        }
+        Assert.assertEquals(messages, decoded);
+        Assert.assertFalse(decoder.hasFrame());
+    }
+
+    @Test
+    public void framesCanBeStreamedInParallel() throws IOException {
+        List<Object> messages = new ArrayList<>();
+        FrameWriter writer = new FrameWriter(stasis, true);
+        for (int i = 0; i < 5000; i++) {
+            messages.add("message" + i);
+            writer.writeFrame("message" + i, out);
+        }
+
+        FrameReader reader = new FrameReader(stasis, true);
+        Assert.assertEquals(messages, reader.stream(in()).parallel().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void crc32cMatchesKnownValue() {
+        byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+        Checksum fallback = new Crc32c();
+        fallback.update(bytes, 0, bytes.length);
+        Assert.assertEquals(0xE3069283L, fallback.getValue());
+
+        Checksum checksum = Crc32c.create();
+        checksum.update(bytes, 0, bytes.length);
+        Assert.assertEquals(0xE3069283L, checksum.getValue());
+    }
+
+    private void writeAndReadFrames(boolean checksums) throws IOException {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longString.append(i);
+        }
+        FrameWriter writer = new FrameWriter(stasis, checksums);
+        writer.writeFrame("string", out);
+        writer.writeFrame(new Object[] { 1, "string", null }, out);
+        writer.writeFrame(longString.toString(), out);
+
+        FrameReader reader = new FrameReader(stasis, checksums);
+        DataInputStream in = in();
+        Assert.assertEquals("string", reader.readFrame(in));
+        Assert.assertArrayEquals(new Object[] { 1, "string", null }, (Object[]) reader.readFrame(in));
+        Assert.assertEquals(longString.toString(), reader.readFrame(in));
+        Assert.assertEquals(-1, in.read());
+    }
+
+    private DataInputStream in() {
+        return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,150 @@
+package org.stasis.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.Serializer;
+import org.stasis.Stasis;
+import org.stasis.Varint;
+
+public class ParallelArrayTest {
+
+    private Stasis stasis = Stasis.create().registerNull().registerBoxedPrimitives().registerString().registerObjectArray();
+    private ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void after() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void arrayIsWrittenAndReadInChunks() throws IOException {
+        Object[] array = new Object[1000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i % 3 == 0 ? "string" + i : (i % 3 == 1 ? (Object) i : null);
+        }
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        new ParallelArrayWriter(stasis, pool, 64).writeArray(array, out);
+
+        Object[] result = new ParallelArrayReader(stasis, pool).readArray(in(out));
+        Assert.assertArrayEquals(array, result);
+    }
+
+    @Test
+    public void outputIsDeterministic() throws IOException {
+        Object[] array = new Object[500];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = "string" + (i % 10);
+        }
+        ByteArrayDataOutput out1 = new ByteArrayDataOutput();
+        new ParallelArrayWriter(stasis, pool, 50).writeArray(array, out1);
+        ByteArrayDataOutput out2 = new ByteArrayDataOutput();
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        try {
+            new ParallelArrayWriter(stasis, singleThread, 50).writeCollection(Arrays.asList(array), out2);
+        } finally {
+            singleThread.shutdown();
+        }
+
+        Assert.assertArrayEquals(out1.toByteArray(), out2.toByteArray());
+    }
+
+    @Test
+    public void emptyArray() throws IOException {
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        new ParallelArrayWriter(stasis, pool, 50).writeArray(new Object[0], out);
+        Assert.assertArrayEquals(new Object[0], new ParallelArrayReader(stasis, pool).readArray(in(out)));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void chunkCountsMustMatchArraySize() throws IOException {
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        Varint.writeUnsignedVarInt(10, out); // array size
+        Varint.writeUnsignedVarInt(1, out); // chunks
+        Varint.writeUnsignedVarInt(9, out); // element count
+        Varint.writeUnsignedVarInt(9, out); // byte length
+        for (int i = 0; i < 9; i++) {
+            out.writeByte(0); // null
+        }
+        new ParallelArrayReader(stasis, pool).readArray(in(out));
+    }
+
+    @Test
+    public void failedChunkWritesNothing() throws IOException {
+        stasis.register(Failing.class, new Serializer<Failing>() {
+
+            @Override
+            public void write(Stasis.Writer writer, DataOutput out, Failing value) throws IOException {
+                throw new IOException("failed");
+            }
+
+            @Override
+            public Failing read(Stasis.Reader reader, DataInput in) throws IOException {
+                return new Failing();
+            }
+
+        });
+        Object[] array = new Object[100];
+        Arrays.fill(array, "string");
+        array[70] = new Failing();
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        try {
+            new ParallelArrayWriter(stasis, pool, 10).writeArray(array, out);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+        Assert.assertEquals(0, out.size());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void arraySizeIsLimited() throws IOException {
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        new ParallelArrayWriter(stasis, pool, 4).writeArray(new Object[10], out);
+        new ParallelArrayReader(stasis.setMaxLength(9), pool).readArray(in(out));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void chunkLengthsAreChargedToAllocationBudget() throws IOException {
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        Varint.writeUnsignedVarInt(1, out); // array size
+        Varint.writeUnsignedVarInt(1, out); // chunks
+        Varint.writeUnsignedVarInt(1, out); // element count
+        Varint.writeUnsignedVarInt(Integer.MAX_VALUE, out); // byte length
+        new ParallelArrayReader(stasis.setAllocationBudget(1 << 20), pool).readArray(in(out));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedChunkFailsWithoutAllocatingItsLength() throws IOException {
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        Varint.writeUnsignedVarInt(1, out); // array size
+        Varint.writeUnsignedVarInt(1, out); // chunks
+        Varint.writeUnsignedVarInt(1, out); // element count
+        Varint.writeUnsignedVarInt(Integer.MAX_VALUE, out); // byte length
+        out.writeByte(0); // null
+        new ParallelArrayReader(stasis, pool).readArray(in(out));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeMustBePositive() {
+        new ParallelArrayWriter(stasis, pool, 0);
+    }
+
+    private DataInputStream in(ByteArrayDataOutput out) {
+        return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static class Failing {
+    }
+}
@@ -0,0 +1,79 @@
+package org.stasis.metrics;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+
+public class StasisMetricsTest {
+
+    private final StasisMetrics metrics = new StasisMetrics();
+    private final Stasis stasis = Stasis.create()
+                                        .registerNull()
+                                        .registerBoxedPrimitives()
+                                        .registerString()
+                                        .registerObjectArray()
+                                        .setMetricsListener(metrics, 1);
+
+    @Test
+    public void countsObjectsBytesAndReferences() throws IOException {
+        String shared = "shared";
+        Object[] array = { shared, shared, 1 };
+
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        Stasis.Writer writer = stasis.newWriter();
+        writer.writeTypeAndObject(array, out);
+        writer.close();
+
+        Stasis.Reader reader = stasis.newReader();
+        Object[] read = (Object[]) reader.readTypeAndObject(new ByteBufferDataInput(out.toByteArray()));
+        reader.close();
+
+        Assert.assertSame(read[0], read[1]);
+        Assert.assertEquals(1, metrics.type(String.class).objectsWritten());
+        Assert.assertEquals(1, metrics.type(String.class).objectsRead());
+        Assert.assertEquals(1, metrics.type(Integer.class).objectsWritten());
+        Assert.assertEquals(1, metrics.type(Object[].class).objectsRead());
+        Assert.assertEquals(8, metrics.type(String.class).bytesWritten());
+        Assert.assertEquals(8, metrics.type(String.class).bytesRead());
+        Assert.assertEquals(out.size() - 1, metrics.type(Object[].class).bytesWritten());
+        Assert.assertEquals(out.size() - 1, metrics.type(Object[].class).bytesRead());
+        Assert.assertEquals(1, metrics.referencesWritten());
+        Assert.assertEquals(1, metrics.referencesRead());
+        Assert.assertEquals(3, metrics.maxWriterReferenceTableSize());
+        Assert.assertEquals(3, metrics.maxReaderReferenceTableSize());
+        Assert.assertEquals(1, metrics.type(Object[].class).writeLatency().count());
+    }
+
+    @Test
+    public void samplesEveryNthObject() throws IOException {
+        stasis.setMetricsListener(metrics, 4);
+        ByteArrayDataOutput out = new ByteArrayDataOutput();
+        Stasis.Writer writer = stasis.newWriter();
+        for (int i = 0; i < 100; i++) {
+            writer.writeTypeAndObject(i, out);
+        }
+        writer.close();
+
+        Assert.assertEquals(100, metrics.type(Integer.class).objectsWritten());
+        Assert.assertEquals(25, metrics.type(Integer.class).writeLatency().count());
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.percentile(50));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        Assert.assertEquals(100, histogram.count());
+        Assert.assertEquals(127, histogram.percentile(50));
+        Assert.assertEquals(127, histogram.percentile(99));
+        Assert.assertEquals(8191, histogram.percentile(100));
+    }
+
+}
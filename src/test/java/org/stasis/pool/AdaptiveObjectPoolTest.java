@@ -0,0 +1,186 @@
+package org.stasis.pool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveObjectPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger(0);
+    private final ObjectFactory<Object> factory = new ObjectFactory<Object>() {
+
+        @Override
+        public Object create() {
+            created.incrementAndGet();
+            return new Object();
+        }
+
+        @Override
+        public void onBorrow(Object object) {
+        }
+
+        @Override
+        public void onRelease(Object object) {
+        }
+
+    };
+
+    @Test
+    public void idleObjectsAreDropped() throws InterruptedException {
+        AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(3, 10, TimeUnit.MILLISECONDS, factory);
+        Object object1 = pool.borrow();
+        Object object2 = pool.borrow();
+        pool.release(object1);
+        pool.release(object2);
+        Assert.assertEquals(2, pool.size());
+        Assert.assertEquals(2, pool.idle());
+
+        Thread.sleep(50);
+        Object object3 = pool.borrow();
+
+        Assert.assertEquals(1, pool.size());
+        Assert.assertEquals(2, pool.dropped());
+        Assert.assertEquals(3, created.get());
+        Assert.assertNotSame(object1, object3);
+        Assert.assertNotSame(object2, object3);
+    }
+
+    @Test
+    public void recentlyReleasedObjectsAreReused() {
+        AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(3, 1, TimeUnit.MINUTES, factory);
+        Object object1 = pool.borrow();
+        pool.release(object1);
+        Assert.assertSame(object1, pool.borrow());
+        Assert.assertEquals(1, pool.created());
+        Assert.assertEquals(2, pool.borrows());
+    }
+
+    @Test
+    public void tryBorrowTimesOutWhenFull() {
+        AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(1, 1, TimeUnit.MINUTES, factory);
+        pool.borrow();
+        Assert.assertNull(pool.tryBorrow(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, pool.waits());
+        Assert.assertTrue(pool.waitNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(1.0, pool.utilization(), 0.0);
+    }
+
+    @Test
+    public void tryBorrowGetsReleasedObject() throws InterruptedException {
+        final AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(1, 1, TimeUnit.MINUTES, factory);
+        final Object object = pool.borrow();
+        Thread releaser = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                pool.release(object);
+            }
+
+        });
+        releaser.start();
+        Assert.assertSame(object, pool.tryBorrow(10, TimeUnit.SECONDS));
+        releaser.join();
+    }
+
+    @Test
+    public void asyncBorrowCompletesOnRelease() {
+        AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(1, 1, TimeUnit.MINUTES, factory);
+        Object object = pool.borrowAsync().toCompletableFuture().join();
+
+        CompletionStage<Object> cancelled = pool.borrowAsync();
+        CompletionStage<Object> waiting = pool.borrowAsync();
+        cancelled.toCompletableFuture().cancel(false);
+        Assert.assertFalse(waiting.toCompletableFuture().isDone());
+
+        pool.release(object);
+
+        CompletableFuture<Object> future = waiting.toCompletableFuture();
+        Assert.assertTrue(future.isDone());
+        Assert.assertSame(object, future.join());
+        Assert.assertEquals(1, created.get());
+        Assert.assertEquals(2, pool.waits());
+        Assert.assertEquals(2, pool.borrows());
+    }
+
+    @Test
+    public void failedCreateGivesSlotToAsyncWaiter() throws InterruptedException {
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch fail = new CountDownLatch(1);
+        ObjectFactory<Object> failingOnce = new ObjectFactory<Object>() {
+
+            @Override
+            public Object create() {
+                if (created.incrementAndGet() == 1) {
+                    creating.countDown();
+                    try {
+                        fail.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    throw new IllegalStateException("failed");
+                }
+                return new Object();
+            }
+
+            @Override
+            public void onBorrow(Object object) {
+            }
+
+            @Override
+            public void onRelease(Object object) {
+            }
+
+        };
+        final AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(1, 1, TimeUnit.MINUTES, failingOnce);
+        Thread borrower = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    pool.borrow();
+                    Assert.fail();
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+
+        });
+        borrower.start();
+        creating.await();
+        CompletableFuture<Object> waiting = pool.borrowAsync().toCompletableFuture();
+        Assert.assertFalse(waiting.isDone());
+
+        fail.countDown();
+        borrower.join();
+
+        Assert.assertTrue(waiting.isDone());
+        Assert.assertNotNull(waiting.join());
+        Assert.assertEquals(1, pool.size());
+        Assert.assertEquals(2, created.get());
+    }
+
+    @Test
+    public void interruptedBorrowKeepsInterruptStatus() {
+        AdaptiveObjectPool<Object> pool = new AdaptiveObjectPool<>(1, 1, TimeUnit.MINUTES, factory);
+        pool.borrow();
+        Thread.currentThread().interrupt();
+        try {
+            pool.tryBorrow(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(Thread.interrupted());
+        }
+        Assert.assertEquals(1, pool.waits());
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.stasis.pool;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.stasis.ByteArrayDataOutput;
+
+public class BufferPoolTest {
+
+    @Test
+    public void arraysAreRoundedUpToPowersOfTwo() {
+        BufferPool pool = new BufferPool(4, 1 << 20, 1 << 20);
+        Assert.assertEquals(64, pool.borrowArray(1).length);
+        Assert.assertEquals(64, pool.borrowArray(64).length);
+        Assert.assertEquals(128, pool.borrowArray(65).length);
+        Assert.assertEquals(1 << 20, pool.borrowArray((1 << 19) + 1).length);
+    }
+
+    @Test
+    public void releasedArraysAreReused() {
+        BufferPool pool = new BufferPool(4, 1 << 20, 1 << 20);
+        byte[] array = pool.borrowArray(1000);
+        pool.releaseArray(array);
+        Assert.assertSame(array, pool.borrowArray(1000));
+        Assert.assertNotSame(array, pool.borrowArray(1000));
+    }
+
+    @Test
+    public void arraysOfOtherSizesAreNotPooled() {
+        BufferPool pool = new BufferPool(4, 1 << 20, 1 << 20);
+        byte[] array = new byte[1000];
+        pool.releaseArray(array);
+        Assert.assertNotSame(array, pool.borrowArray(1000));
+    }
+
+    @Test
+    public void reservoirIsBounded() {
+        BufferPool pool = new BufferPool(0, 0, 3000);
+        byte[] array1 = pool.borrowArray(1024);
+        byte[] array2 = pool.borrowArray(1024);
+        byte[] array3 = pool.borrowArray(1024);
+        pool.releaseArray(array1);
+        pool.releaseArray(array2);
+        pool.releaseArray(array3);
+        Assert.assertEquals(2048, pool.reservoirBytes());
+
+        Assert.assertSame(array1, pool.borrowArray(1024));
+        Assert.assertSame(array2, pool.borrowArray(1024));
+        Assert.assertNotSame(array3, pool.borrowArray(1024));
+        Assert.assertEquals(0, pool.reservoirBytes());
+    }
+
+    @Test
+    public void threadCacheIsBoundedInBytes() {
+        BufferPool pool = new BufferPool(4, 3000, 1 << 20);
+        byte[] array1 = pool.borrowArray(2048);
+        byte[] array2 = pool.borrowArray(1024);
+        ByteBuffer buffer = pool.borrowDirect(1024);
+        pool.releaseArray(array1);
+        pool.releaseArray(array2);
+        pool.releaseDirect(buffer);
+        Assert.assertEquals(2048, pool.reservoirBytes());
+
+        Assert.assertSame(array1, pool.borrowArray(2048));
+        Assert.assertSame(array2, pool.borrowArray(1024));
+        pool.releaseArray(array2);
+        Assert.assertEquals(1024, pool.reservoirBytes());
+    }
+
+    @Test
+    public void reservoirIsSharedBetweenThreads() throws InterruptedException {
+        final BufferPool pool = new BufferPool(4, 1024, 1 << 20);
+        final byte[] array = pool.borrowArray(4096);
+        Thread releaser = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                pool.releaseArray(array);
+            }
+
+        });
+        releaser.start();
+        releaser.join();
+        Assert.assertSame(array, pool.borrowArray(4096));
+    }
+
+    @Test
+    public void directBuffersAreClearedOnBorrow() {
+        BufferPool pool = new BufferPool(4, 1 << 20, 1 << 20);
+        ByteBuffer buffer = pool.borrowDirect(100);
+        Assert.assertTrue(buffer.isDirect());
+        Assert.assertEquals(128, buffer.capacity());
+        buffer.putInt(1).flip();
+        pool.releaseDirect(buffer);
+
+        ByteBuffer reused = pool.borrowDirect(100);
+        Assert.assertSame(buffer, reused);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(128, reused.limit());
+    }
+
+    @Test
+    public void outputGrowsThroughPool() {
+        BufferPool pool = new BufferPool(4, 1 << 20, 1 << 20);
+        ByteArrayDataOutput out = new ByteArrayDataOutput(pool);
+        byte[] initial = out.array();
+        for (int i = 0; i < 1000; i++) {
+            out.writeInt(i);
+        }
+        Assert.assertEquals(4096, out.array().length);
+        Assert.assertSame(initial, pool.borrowArray(256));
+
+        byte[] grown = out.array();
+        out.release();
+        Assert.assertEquals(0, out.size());
+        Assert.assertSame(grown, pool.borrowArray(4000));
+
+        out.writeInt(42);
+        Assert.assertEquals(4, out.size());
+        Assert.assertEquals(42, out.array()[3]);
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.stasis.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+
+/**
+ * {@link Stasis#copy(Object)} compared to copying by writing and reading the graph.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CopyBenchmark {
+
+    @Param({ "tree", "dag", "longList" })
+    public String shape;
+
+    private final Stasis stasis = Graphs.stasis();
+    private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+    private Object graph;
+
+    @Setup
+    public void setup() {
+        graph = Graphs.create(shape);
+    }
+
+    @Benchmark
+    public Object copy() throws IOException {
+        return stasis.copy(graph);
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException {
+        out.reset();
+        Stasis.Writer writer = stasis.newWriter();
+        writer.writeTypeAndObject(graph, out);
+        writer.close();
+        Stasis.Reader reader = stasis.newReader();
+        Object copy = reader.readTypeAndObject(new ByteBufferDataInput(out.toByteArray()));
+        reader.close();
+        return copy;
+    }
+
+}
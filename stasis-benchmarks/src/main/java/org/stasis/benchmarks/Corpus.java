@@ -0,0 +1,83 @@
+package org.stasis.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Representative payloads for the regression harness. Every payload is generated from a fixed seed, so the corpus is
+ * identical between runs and machines.
+ */
+final class Corpus {
+
+    private Corpus() {
+    }
+
+    static Map<String, Object> payloads() {
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("randomStrings", randomStrings(new Random(123), 1000));
+        payloads.put("intArray", intArray(new Random(123), 10000));
+        payloads.put("doubleArray", doubleArray(new Random(123), 10000));
+        payloads.put("mixedObjects", mixedObjects(new Random(123), 1000));
+        payloads.put("tree", Graphs.create("tree"));
+        payloads.put("dag", Graphs.create("dag"));
+        payloads.put("longList", Graphs.create("longList"));
+        return payloads;
+    }
+
+    private static String[] randomStrings(Random rand, int count) {
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder strBuilder = new StringBuilder();
+            for (int a = 0; a < rand.nextInt(5); a++) {
+                strBuilder.append(rand.nextInt(65536));
+            }
+            strings[i] = strBuilder.toString();
+        }
+        return strings;
+    }
+
+    private static int[] intArray(Random rand, int count) {
+        int[] array = new int[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = rand.nextInt(1 << rand.nextInt(31));
+        }
+        return array;
+    }
+
+    private static double[] doubleArray(Random rand, int count) {
+        double[] array = new double[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = rand.nextDouble();
+        }
+        return array;
+    }
+
+    private static Object[] mixedObjects(Random rand, int count) {
+        Object[] array = new Object[count];
+        for (int i = 0; i < count; i++) {
+            switch (rand.nextInt(6)) {
+            case 0:
+                array[i] = rand.nextInt();
+                break;
+            case 1:
+                array[i] = rand.nextLong();
+                break;
+            case 2:
+                array[i] = rand.nextDouble();
+                break;
+            case 3:
+                array[i] = rand.nextBoolean();
+                break;
+            case 4:
+                array[i] = "string" + rand.nextInt(100);
+                break;
+            default:
+                array[i] = null;
+                break;
+            }
+        }
+        return array;
+    }
+
+}
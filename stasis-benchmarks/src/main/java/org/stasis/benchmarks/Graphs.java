@@ -0,0 +1,72 @@
+package org.stasis.benchmarks;
+
+import java.util.Random;
+
+import org.stasis.Stasis;
+
+/**
+ * Deterministic object graphs for the benchmarks.
+ */
+final class Graphs {
+
+    private Graphs() {
+    }
+
+    static Stasis stasis() {
+        return Stasis.create()
+                     .registerNull()
+                     .registerPrimitives()
+                     .registerBoxedPrimitives()
+                     .registerString()
+                     .registerPrimitiveArrays()
+                     .registerBoxedPrimitiveArrays()
+                     .registerStringArray()
+                     .registerObjectArray();
+    }
+
+    /**
+     * Return a graph of the given shape. Cycles are not included, because a writer registers an object only after its
+     * content has been written and can not serialize them.
+     */
+    static Object create(String shape) {
+        Random rand = new Random(123);
+        switch (shape) {
+        case "tree":
+            return tree(rand, 6, 5);
+        case "dag":
+            return dag(rand, 6, 5);
+        case "longList":
+            Object[] list = new Object[10000];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = "element" + rand.nextInt(100000);
+            }
+            return list;
+        default:
+            throw new IllegalArgumentException("Unknown shape " + shape + ".");
+        }
+    }
+
+    private static Object tree(Random rand, int depth, int width) {
+        if (depth == 0) {
+            return "leaf" + rand.nextInt(100000);
+        }
+        Object[] node = new Object[width];
+        for (int i = 0; i < width; i++) {
+            node[i] = tree(rand, depth - 1, width);
+        }
+        return node;
+    }
+
+    private static Object dag(Random rand, int depth, int width) {
+        if (depth == 0) {
+            return "leaf" + rand.nextInt(100000);
+        }
+        Object[] node = new Object[width];
+        Object shared = dag(rand, depth - 1, width);
+        for (int i = 0; i < width; i++) {
+            node[i] = i % 2 == 0 ? shared : dag(rand, depth - 2 < 0 ? 0 : depth - 2, width);
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.stasis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stasis.pool.DynamicObjectPool;
+import org.stasis.pool.ObjectFactory;
+import org.stasis.pool.ObjectPool;
+import org.stasis.pool.StaticObjectPool;
+
+/**
+ * Borrow and release throughput of the object pools when more threads than pooled objects contend for them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ObjectPoolBenchmark {
+
+    @Param({ "static", "dynamic" })
+    public String pool;
+
+    private ObjectPool<byte[]> objects;
+
+    @Setup
+    public void setup() {
+        ObjectFactory<byte[]> factory = new ObjectFactory<byte[]>() {
+
+            @Override
+            public byte[] create() {
+                return new byte[1024];
+            }
+
+            @Override
+            public void onBorrow(byte[] object) {
+            }
+
+            @Override
+            public void onRelease(byte[] object) {
+            }
+
+        };
+        objects = "static".equals(pool) ? new StaticObjectPool<>(4, factory) : new DynamicObjectPool<>(4, factory);
+    }
+
+    @Benchmark
+    public byte borrowAndRelease() {
+        byte[] object = objects.borrow();
+        byte b = object[0];
+        objects.release(object);
+        return b;
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.stasis.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.ByteBufferDataInput;
+import org.stasis.HashReferenceProviderFactory;
+import org.stasis.IdentityReferenceProviderFactory;
+import org.stasis.Stasis;
+
+/**
+ * Identity and hash based reference providers across graph shapes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReferenceProviderBenchmark {
+
+    @Param({ "identity", "hash" })
+    public String references;
+
+    @Param({ "tree", "dag", "longList" })
+    public String shape;
+
+    private final Stasis stasis = Graphs.stasis();
+    private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+    private Object graph;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        stasis.setReferenceProviderFactory("hash".equals(references) ? new HashReferenceProviderFactory()
+                                                                     : new IdentityReferenceProviderFactory());
+        graph = Graphs.create(shape);
+        write();
+        bytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        Stasis.Writer writer = stasis.newWriter();
+        writer.writeTypeAndObject(graph, out);
+        writer.close();
+        return out.size();
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        Stasis.Reader reader = stasis.newReader();
+        Object result = reader.readTypeAndObject(new ByteBufferDataInput(bytes));
+        reader.close();
+        return result;
+    }
+
+}
@@ -0,0 +1,197 @@
+package org.stasis.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Stasis;
+
+/**
+ * Measures encoded size, round trip throughput and allocated bytes per round trip for every {@link Corpus} payload and
+ * compares them to baseline files. Fails when any metric is worse than the baseline by more than its threshold.
+ * <p>
+ * Sizes and allocations are the same on every machine and are kept in a baseline file that is committed. Throughput
+ * depends on the machine, so it is kept in a separate file on the machine that runs the gate and only compared when
+ * that file exists.
+ * <p>
+ * Arguments: baseline file, throughput baseline file, threshold for size and allocation as a fraction (for example
+ * 0.05), threshold for throughput and whether to record new baselines instead of comparing. A missing baseline file
+ * fails the run unless recording was requested.
+ */
+public final class RegressionHarness {
+
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final long ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int MEASUREMENT_ROUNDS = 5;
+
+    private final Stasis stasis = Graphs.stasis();
+    private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            throw new IllegalArgumentException("Usage: RegressionHarness <baseline file> <throughput baseline file> "
+                                               + "<threshold> <throughput threshold> [record]");
+        }
+        File baselineFile = new File(args[0]);
+        File throughputBaselineFile = new File(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        double throughputThreshold = Double.parseDouble(args[3]);
+        boolean record = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+        if (!record && !baselineFile.isFile()) {
+            throw new IllegalStateException("Baseline " + baselineFile + " does not exist, record it with "
+                                            + "-Dregression.record=true.");
+        }
+        Properties results = new RegressionHarness().measure();
+
+        if (record) {
+            store(results, baselineFile, false);
+            store(results, throughputBaselineFile, true);
+            System.out.println("Recorded baselines " + baselineFile + " and " + throughputBaselineFile + ".");
+            return;
+        }
+
+        Properties baseline = load(baselineFile);
+        if (throughputBaselineFile.isFile()) {
+            baseline.putAll(load(throughputBaselineFile));
+        } else {
+            System.out.println("No throughput baseline " + throughputBaselineFile + ", throughput is not compared.");
+        }
+        List<String> regressions = compare(baseline, results, threshold, throughputThreshold);
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Performance regressed:\n" + String.join("\n", regressions));
+        }
+        System.out.println("No regressions.");
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * Write either the throughput results or all other results to the file, sorted so that baselines diff cleanly.
+     */
+    private static void store(Properties results, File file, boolean throughput) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1)) {
+            for (String key : new TreeSet<>(results.stringPropertyNames())) {
+                if (isThroughput(key) == throughput) {
+                    out.write(key + "=" + results.getProperty(key) + "\n");
+                }
+            }
+        }
+    }
+
+    private static boolean isThroughput(String key) {
+        return key.endsWith(".throughput");
+    }
+
+    static List<String> compare(Properties baseline, Properties results, double threshold,
+                                double throughputThreshold) {
+        List<String> regressions = new ArrayList<>();
+        for (String key : new TreeSet<>(results.stringPropertyNames())) {
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                continue;
+            }
+            double before = Double.parseDouble(expected);
+            double after = Double.parseDouble(results.getProperty(key));
+            // Throughput regresses downwards, sizes and allocations upwards.
+            boolean regressed = isThroughput(key) ? after < before * (1 - throughputThreshold)
+                                                            : after > before * (1 + threshold);
+            String line = key + ": " + expected + " -> " + results.getProperty(key);
+            System.out.println(line);
+            if (regressed) {
+                regressions.add(line);
+            }
+        }
+        return regressions;
+    }
+
+    Properties measure() throws IOException {
+        Properties results = new Properties();
+        for (Map.Entry<String, Object> entry : Corpus.payloads().entrySet()) {
+            String name = entry.getKey();
+            Object payload = entry.getValue();
+
+            write(payload);
+            byte[] bytes = out.toByteArray();
+            results.setProperty(name + ".size", Integer.toString(bytes.length));
+
+            run(payload, bytes, WARMUP_NANOS);
+            long allocatedBefore = allocatedBytes();
+            long ops = 0;
+            long throughput = 0;
+            // Best of several rounds is less sensitive to other load on the machine than a single long round.
+            for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+                long start = System.nanoTime();
+                long roundOps = run(payload, bytes, ROUND_NANOS);
+                long elapsed = System.nanoTime() - start;
+                throughput = Math.max(throughput, roundOps * TimeUnit.SECONDS.toNanos(1) / elapsed);
+                ops += roundOps;
+            }
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            results.setProperty(name + ".throughput", Long.toString(throughput));
+            if (allocatedBefore >= 0) {
+                results.setProperty(name + ".allocated", Long.toString(allocated / ops));
+            }
+        }
+        return results;
+    }
+
+    private long run(Object payload, byte[] bytes, long nanos) throws IOException {
+        long ops = 0;
+        long end = System.nanoTime() + nanos;
+        do {
+            write(payload);
+            read(bytes);
+            ops++;
+        } while (System.nanoTime() < end);
+        return ops;
+    }
+
+    private void write(Object payload) throws IOException {
+        out.reset();
+        Stasis.Writer writer = stasis.newWriter();
+        writer.writeTypeAndObject(payload, out);
+        writer.close();
+    }
+
+    private Object read(byte[] bytes) throws IOException {
+        Stasis.Reader reader = stasis.newReader();
+        Object result = reader.readTypeAndObject(new ByteBufferDataInput(bytes));
+        reader.close();
+        return result;
+    }
+
+    /**
+     * Bytes allocated by the current thread, or -1 when the JVM does not expose it.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.stasis.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stasis.ByteArrayDataOutput;
+import org.stasis.ByteBufferDataInput;
+import org.stasis.Serializer;
+import org.stasis.Serializers;
+import org.stasis.Stasis;
+
+/**
+ * Write and read throughput of the built-in serializers. Run with {@code -prof gc} for allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+
+    @Param({ "varint", "varlong", "double", "string", "byteArray", "intArray", "doubleArray", "stringArray",
+             "objectArray" })
+    public String serializer;
+
+    private final Stasis stasis = Graphs.stasis();
+    private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+    private Serializer<Object> writeSerializer;
+    private Object value;
+    private byte[] bytes;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() throws IOException {
+        Random rand = new Random(123);
+        switch (serializer) {
+        case "varint":
+            value = rand.nextInt(100000);
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forVarInt();
+            break;
+        case "varlong":
+            value = rand.nextLong();
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forVarLong();
+            break;
+        case "double":
+            value = rand.nextDouble();
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forDouble();
+            break;
+        case "string":
+            value = "string 日本 " + rand.nextInt();
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forString();
+            break;
+        case "byteArray":
+            byte[] byteArray = new byte[1024];
+            rand.nextBytes(byteArray);
+            value = byteArray;
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forByteArray();
+            break;
+        case "intArray":
+            int[] intArray = new int[1024];
+            for (int i = 0; i < intArray.length; i++) {
+                intArray[i] = rand.nextInt(100000);
+            }
+            value = intArray;
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forIntArray();
+            break;
+        case "doubleArray":
+            double[] doubleArray = new double[1024];
+            for (int i = 0; i < doubleArray.length; i++) {
+                doubleArray[i] = rand.nextDouble();
+            }
+            value = doubleArray;
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forDoubleArray();
+            break;
+        case "stringArray":
+            String[] stringArray = new String[256];
+            for (int i = 0; i < stringArray.length; i++) {
+                stringArray[i] = "string" + rand.nextInt();
+            }
+            value = stringArray;
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forArray(String.class, Serializers.forString());
+            break;
+        case "objectArray":
+            Object[] objectArray = new Object[256];
+            for (int i = 0; i < objectArray.length; i++) {
+                objectArray[i] = i % 2 == 0 ? (Object) ("string" + rand.nextInt()) : (Object) rand.nextDouble();
+            }
+            value = objectArray;
+            writeSerializer = (Serializer<Object>) (Serializer<?>) Serializers.forObjectArray();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown serializer " + serializer + ".");
+        }
+        write();
+        bytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        Stasis.Writer writer = stasis.newWriter();
+        writer.writeObject(value, out, writeSerializer);
+        writer.close();
+        return out.size();
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        Stasis.Reader reader = stasis.newReader();
+        Object result = reader.readObject(new ByteBufferDataInput(bytes), writeSerializer);
+        reader.close();
+        return result;
+    }
+
+}